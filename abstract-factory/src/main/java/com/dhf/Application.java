@@ -4,56 +4,73 @@ import com.dhf.factory.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class Application {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Application.class);
-    private Ship ship;
-    private Captain captain;
-    private Sailor sailor;
+    private final AtomicReference<Team> team = new AtomicReference<>(Team.EMPTY);
 
     public static void main(String[] args) {
         Application app = new Application();
+        TeamFactoryRegistry registry = new TeamFactoryRegistry();
 
-        app.createTeam(new YoungTeamFactory());
+        app.createTeam(new CachingTeamFactory(registry.get("young")));
         LOGGER.info("正在创建一支年轻的队伍...");
-        LOGGER.info("-->" + app.getCaptain().getDescription());
-        LOGGER.info("-->" + app.getShip().getDescription());
-        LOGGER.info("-->" + app.getSailor().getDescription());
+        Team team = app.getTeam();
+        LOGGER.info("-->" + team.getCaptain().getDescription());
+        LOGGER.info("-->" + team.getShip().getDescription());
+        LOGGER.info("-->" + team.getSailor().getDescription());
 
-        app.createTeam(new PermanentTeamFactory());
+        app.createTeam(new CachingTeamFactory(registry.get("permanent")));
         LOGGER.info("正在创建一支久经考验的队伍...");
-        LOGGER.info("-->" + app.getCaptain().getDescription());
-        LOGGER.info("-->" + app.getShip().getDescription());
-        LOGGER.info("-->" + app.getSailor().getDescription());
+        team = app.getTeam();
+        LOGGER.info("-->" + team.getCaptain().getDescription());
+        LOGGER.info("-->" + team.getShip().getDescription());
+        LOGGER.info("-->" + team.getSailor().getDescription());
+
+        TeamBatch batch = app.createTeams(new CachingTeamFactory(registry.get("young")), 100000);
+        LOGGER.info("批量创建了" + batch.size() + "支年轻的队伍");
+
+        registry.getLoadNanos().forEach((name, nanos) -> LOGGER.info("加载工厂" + name + "耗时" + nanos + "ns"));
     }
 
     public void createTeam(final TeamFactory factory) {
-        setCaptain(factory.createCaptain());
-        setShip(factory.createShip());
-        setSailor(factory.createSailor());
+        // 缓存工厂返回共享的快照，直接发布，不需要每次创建新的Team
+        team.set(factory.createTeam());
+    }
+
+    public TeamBatch createTeams(final TeamFactory factory, int n) {
+        TeamBatch batch = new TeamBatch(n);
+        batch.fill(factory);
+        return batch;
+    }
+
+    public Team getTeam() {
+        return team.get();
     }
 
     public Ship getShip() {
-        return ship;
+        return team.get().getShip();
     }
 
     public void setShip(Ship ship) {
-        this.ship = ship;
+        team.updateAndGet(t -> t.withShip(ship));
     }
 
     public Captain getCaptain() {
-        return captain;
+        return team.get().getCaptain();
     }
 
     public void setCaptain(Captain captain) {
-        this.captain = captain;
+        team.updateAndGet(t -> t.withCaptain(captain));
     }
 
     public Sailor getSailor() {
-        return sailor;
+        return team.get().getSailor();
     }
 
     public void setSailor(Sailor sailor) {
-        this.sailor = sailor;
+        team.updateAndGet(t -> t.withSailor(sailor));
     }
 }
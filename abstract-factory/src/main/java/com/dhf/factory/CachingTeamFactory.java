@@ -0,0 +1,39 @@
+package com.dhf.factory;
+
+/**
+ * 缓存成员的工厂装饰器，船、船长和水手都是无状态的，被装饰的工厂只需要创建一次，之后每次都返回共享的实例
+ */
+public class CachingTeamFactory implements TeamFactory {
+
+    private final Ship ship;
+    private final Captain captain;
+    private final Sailor sailor;
+    private final Team team;
+
+    public CachingTeamFactory(TeamFactory factory) {
+        this.ship = factory.createShip();
+        this.captain = factory.createCaptain();
+        this.sailor = factory.createSailor();
+        this.team = new Team(ship, captain, sailor);
+    }
+
+    /**
+     * 由共享成员组成的队伍，同样只创建一次，每次都返回同一个快照
+     */
+    @Override
+    public Team createTeam() {
+        return team;
+    }
+
+    public Ship createShip() {
+        return ship;
+    }
+
+    public Captain createCaptain() {
+        return captain;
+    }
+
+    public Sailor createSailor() {
+        return sailor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dhf.factory;
+
+/**
+ * 不可变的队伍，船、船长和水手总是一起被替换，读取方不会看到一半年轻一半久经考验的队伍
+ */
+public final class Team {
+
+    public static final Team EMPTY = new Team(null, null, null);
+
+    private final Ship ship;
+    private final Captain captain;
+    private final Sailor sailor;
+
+    public Team(Ship ship, Captain captain, Sailor sailor) {
+        this.ship = ship;
+        this.captain = captain;
+        this.sailor = sailor;
+    }
+
+    public static Team of(TeamFactory factory) {
+        return new Team(factory.createShip(), factory.createCaptain(), factory.createSailor());
+    }
+
+    public Ship getShip() {
+        return ship;
+    }
+
+    public Captain getCaptain() {
+        return captain;
+    }
+
+    public Sailor getSailor() {
+        return sailor;
+    }
+
+    public Team withShip(Ship ship) {
+        return new Team(ship, captain, sailor);
+    }
+
+    public Team withCaptain(Captain captain) {
+        return new Team(ship, captain, sailor);
+    }
+
+    public Team withSailor(Sailor sailor) {
+        return new Team(ship, captain, sailor);
+    }
+}
@@ -0,0 +1,87 @@
+package com.dhf.factory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量创建的队伍，船、船长和水手按列分别保存在数组中，第i支队伍由三个数组中下标为i的成员组成
+ */
+public class TeamBatch {
+
+    /**
+     * 队伍数量超过该值时拆分成多个任务并行创建
+     */
+    static final int THRESHOLD = 4096;
+
+    private final Ship[] ships;
+    private final Captain[] captains;
+    private final Sailor[] sailors;
+
+    public TeamBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        this.ships = new Ship[size];
+        this.captains = new Captain[size];
+        this.sailors = new Sailor[size];
+    }
+
+    /**
+     * 用工厂填满所有队伍，工厂需要是线程安全的
+     */
+    public void fill(TeamFactory factory) {
+        if (size() <= THRESHOLD) {
+            fill(factory, 0, size());
+        } else {
+            ForkJoinPool.commonPool().invoke(new FillTask(factory, 0, size()));
+        }
+    }
+
+    private void fill(TeamFactory factory, int from, int to) {
+        for (int i = from; i < to; i++) {
+            captains[i] = factory.createCaptain();
+            ships[i] = factory.createShip();
+            sailors[i] = factory.createSailor();
+        }
+    }
+
+    public int size() {
+        return ships.length;
+    }
+
+    public Ship getShip(int index) {
+        return ships[index];
+    }
+
+    public Captain getCaptain(int index) {
+        return captains[index];
+    }
+
+    public Sailor getSailor(int index) {
+        return sailors[index];
+    }
+
+    private class FillTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TeamFactory factory;
+        private final int from;
+        private final int to;
+
+        FillTask(TeamFactory factory, int from, int to) {
+            this.factory = factory;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                fill(factory, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FillTask(factory, from, mid), new FillTask(factory, mid, to));
+        }
+    }
+}
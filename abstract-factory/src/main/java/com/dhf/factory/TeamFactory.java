@@ -7,4 +7,11 @@ public interface TeamFactory {
     Captain createCaptain();
 
     Sailor createSailor();
+
+    /**
+     * 由该工厂的船、船长和水手组成一支队伍
+     */
+    default Team createTeam() {
+        return Team.of(this);
+    }
 }
@@ -0,0 +1,94 @@
+package com.dhf.factory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 工厂注册表，启动时只读取classpath下所有的META-INF/team-factories.properties索引文件（名称=工厂类名），
+ * 工厂类在第一次被获取时才加载和实例化，并记录每个工厂的加载耗时
+ */
+public class TeamFactoryRegistry {
+
+    public static final String INDEX_RESOURCE = "META-INF/team-factories.properties";
+
+    private final ClassLoader classLoader;
+    private final Map<String, String> index;
+    private final Map<String, TeamFactory> factories = new ConcurrentHashMap<>();
+    private final Map<String, Long> loadNanos = new ConcurrentHashMap<>();
+
+    public TeamFactoryRegistry() {
+        this(TeamFactoryRegistry.class.getClassLoader());
+    }
+
+    public TeamFactoryRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        this.index = Collections.unmodifiableMap(readIndex(classLoader));
+    }
+
+    private static Map<String, String> readIndex(ClassLoader classLoader) {
+        Map<String, String> index = new LinkedHashMap<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(INDEX_RESOURCE);
+            while (resources.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream in = resources.nextElement().openStream()) {
+                    properties.load(in);
+                }
+                for (String name : properties.stringPropertyNames()) {
+                    index.putIfAbsent(name, properties.getProperty(name).trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read " + INDEX_RESOURCE, e);
+        }
+        return index;
+    }
+
+    public Set<String> names() {
+        return index.keySet();
+    }
+
+    /**
+     * 获取指定名称的工厂，第一次获取时加载并实例化工厂类
+     */
+    public TeamFactory get(String name) {
+        TeamFactory factory = factories.get(name);
+        if (factory != null) {
+            return factory;
+        }
+        String className = index.get(name);
+        if (className == null) {
+            throw new IllegalArgumentException("unknown team factory: " + name);
+        }
+        return factories.computeIfAbsent(name, n -> load(n, className));
+    }
+
+    private TeamFactory load(String name, String className) {
+        long start = System.nanoTime();
+        try {
+            Class<? extends TeamFactory> type = Class.forName(className, true, classLoader)
+                    .asSubclass(TeamFactory.class);
+            TeamFactory factory = type.getDeclaredConstructor().newInstance();
+            loadNanos.put(name, System.nanoTime() - start);
+            return factory;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("failed to load team factory " + name + ": " + className, e);
+        }
+    }
+
+    /**
+     * 已加载工厂的类加载和初始化耗时，单位纳秒
+     */
+    public Map<String, Long> getLoadNanos() {
+        return Collections.unmodifiableMap(loadNanos);
+    }
+}
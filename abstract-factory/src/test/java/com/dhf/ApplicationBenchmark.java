@@ -0,0 +1,118 @@
+package com.dhf;
+
+import com.dhf.factory.CachingTeamFactory;
+import com.dhf.factory.Captain;
+import com.dhf.factory.PermanentTeamFactory;
+import com.dhf.factory.Sailor;
+import com.dhf.factory.Ship;
+import com.dhf.factory.Team;
+import com.dhf.factory.TeamFactory;
+import com.dhf.factory.YoungTeamFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较{@link Application}通过AtomicReference发布不可变的{@link Team}和用synchronized保护三个成员字段两种做法在争用下的开销。
+ * 每组3个线程读取完整的队伍，1个线程不断在年轻和久经考验的队伍之间切换。运行方式：
+ * <pre>
+ * mvn -pl abstract-factory -am test-compile
+ * mvn -pl abstract-factory exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ApplicationBenchmark"
+ * </pre>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ApplicationBenchmark {
+
+    private final TeamFactory young = new CachingTeamFactory(new YoungTeamFactory());
+    private final TeamFactory permanent = new CachingTeamFactory(new PermanentTeamFactory());
+    private final Application atomicApp = new Application();
+    private final SynchronizedApplication synchronizedApp = new SynchronizedApplication();
+    private boolean flip;
+
+    @Benchmark
+    @Group("atomic")
+    @GroupThreads(3)
+    public void atomicRead(Blackhole blackhole) {
+        Team team = atomicApp.getTeam();
+        blackhole.consume(team.getShip());
+        blackhole.consume(team.getCaptain());
+        blackhole.consume(team.getSailor());
+    }
+
+    @Benchmark
+    @Group("atomic")
+    @GroupThreads(1)
+    public void atomicWrite() {
+        atomicApp.createTeam(nextFactory());
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(3)
+    public void synchronizedRead(Blackhole blackhole) {
+        synchronized (synchronizedApp) {
+            blackhole.consume(synchronizedApp.getShip());
+            blackhole.consume(synchronizedApp.getCaptain());
+            blackhole.consume(synchronizedApp.getSailor());
+        }
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public void synchronizedWrite() {
+        synchronizedApp.createTeam(nextFactory());
+    }
+
+    /**
+     * 只有写线程调用
+     */
+    private TeamFactory nextFactory() {
+        flip = !flip;
+        return flip ? young : permanent;
+    }
+
+    /**
+     * 引入Team之前的做法，三个成员分别保存，读取完整的队伍需要在外面持有同一把锁
+     */
+    private static final class SynchronizedApplication {
+        private Ship ship;
+        private Captain captain;
+        private Sailor sailor;
+
+        synchronized void createTeam(TeamFactory factory) {
+            ship = factory.createShip();
+            captain = factory.createCaptain();
+            sailor = factory.createSailor();
+        }
+
+        synchronized Ship getShip() {
+            return ship;
+        }
+
+        synchronized Captain getCaptain() {
+            return captain;
+        }
+
+        synchronized Sailor getSailor() {
+            return sailor;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.dhf;
+
+import com.dhf.factory.CachingTeamFactory;
+import com.dhf.factory.TeamFactory;
+import com.dhf.factory.YoungTeamFactory;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ApplicationTest {
+
+    private static final int CALLS = 200000;
+
+    @Test
+    public void createTeamWithCachingFactorySharesMembers() {
+        Application app = new Application();
+        TeamFactory factory = new CachingTeamFactory(new YoungTeamFactory());
+
+        app.createTeam(factory);
+        Object first = app.getTeam();
+        app.createTeam(factory);
+
+        assertSame(first, app.getTeam());
+        assertSame(factory.createShip(), app.getShip());
+        assertSame(factory.createCaptain(), app.getCaptain());
+        assertSame(factory.createSailor(), app.getSailor());
+    }
+
+    @Test
+    public void cachingFactoryMakesCreateTeamAllocationFree() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Application app = new Application();
+        long uncached = bytesPerCreateTeam(threads, app, new YoungTeamFactory());
+        long cached = bytesPerCreateTeam(threads, app, new CachingTeamFactory(new YoungTeamFactory()));
+
+        // 不缓存时每次都创建船、船长、水手和Team，每个对象至少16字节
+        assertTrue("uncached createTeam allocated " + uncached + " bytes per call", uncached >= 4 * 16);
+        // 缓存后只发布共享的快照，平均每次调用不到1字节
+        assertEquals(0, cached);
+    }
+
+    /**
+     * 先预热让createTeam被JIT编译，再返回平均每次调用当前线程分配的字节数
+     */
+    private static long bytesPerCreateTeam(com.sun.management.ThreadMXBean threads, Application app, TeamFactory factory) {
+        for (int i = 0; i < CALLS; i++) {
+            app.createTeam(factory);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            app.createTeam(factory);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / CALLS;
+    }
+}
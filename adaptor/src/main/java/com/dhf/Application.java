@@ -11,5 +11,26 @@ public class Application {
         turkeyAdapter.fly();
         duck.quack();
         turkeyAdapter.quack();
+
+        MethodHandleAdapterFactory<Duck, Turkey> adapterFactory = MethodHandleAdapterFactory.builder(Duck.class, Turkey.class)
+                .map("quack", "gobble")
+                .map("fly", "fly", 3)
+                .build();
+        Duck generatedAdapter = adapterFactory.adapt(turkey);
+        generatedAdapter.fly();
+        generatedAdapter.quack();
+
+        try (CoalescingTurkeyAdapter coalescingAdapter = new CoalescingTurkeyAdapter(new ATurkey(), 30)) {
+            for (int i = 0; i < 12; i++) {
+                coalescingAdapter.fly();
+            }
+            coalescingAdapter.quack();
+        }
+
+        try (AsyncTurkeyAdapter asyncAdapter = new AsyncTurkeyAdapter(turkey, 1, 16, AsyncTurkeyAdapter.Backpressure.BLOCK)) {
+            asyncAdapter.fly()
+                    .thenCompose(v -> asyncAdapter.quack())
+                    .join();
+        }
     }
 }
@@ -1,16 +1,18 @@
 package com.dhf.adaptor;
 
+import com.dhf.common.Console;
+
 /**
  * 一个具体的会飞会叫的鸭子
  */
 public class ADuck implements Duck {
     @Override
     public void fly() {
-        System.out.println("a duck fly...");
+        Console.println("a duck fly...");
     }
 
     @Override
     public void quack() {
-        System.out.println("a duck quack");
+        Console.println("a duck quack");
     }
 }
\ No newline at end of file
@@ -1,16 +1,23 @@
 package com.dhf.adaptor;
 
+import com.dhf.common.Console;
+
 /**
  * 一个具体的会飞会叫的火鸡
  */
-public class ATurkey implements Turkey {
+public class ATurkey implements BulkTurkey {
     @Override
     public void fly() {
-        System.out.println("a turkey fly...");
+        Console.println("a turkey fly...");
+    }
+
+    @Override
+    public void fly(int times) {
+        Console.println("a turkey fly " + times + " times...");
     }
 
     @Override
     public void gobble() {
-        System.out.println("a turkey gobble...");
+        Console.println("a turkey gobble...");
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.dhf.adaptor;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncDuck {
+    /**
+     * 异步地飞，返回的future在飞完后完成
+     */
+    CompletableFuture<Void> fly();
+
+    /**
+     * 异步地嘎嘎叫，返回的future在叫完后完成
+     */
+    CompletableFuture<Void> quack();
+}
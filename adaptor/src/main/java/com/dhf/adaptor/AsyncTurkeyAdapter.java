@@ -0,0 +1,124 @@
+package com.dhf.adaptor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步的火鸡适配器，火鸡的动作在有界线程池中执行，调用方不会被慢的火鸡阻塞。
+ * 线程池的队列满了之后按照{@link Backpressure}处理新的动作
+ */
+public class AsyncTurkeyAdapter implements AsyncDuck, AutoCloseable {
+
+    public enum Backpressure {
+        /**
+         * 阻塞调用方，直到队列有空位
+         */
+        BLOCK,
+        /**
+         * 丢弃新的动作，返回的future以RejectedExecutionException失败
+         */
+        DROP,
+        /**
+         * 由调用方线程直接执行，适配器关闭后返回的future以RejectedExecutionException失败
+         */
+        CALLER_RUNS
+    }
+
+    private static final AtomicInteger POOL_ID = new AtomicInteger();
+
+    private final Turkey turkey;
+    private final ThreadPoolExecutor executor;
+
+    public AsyncTurkeyAdapter(Turkey turkey, int threads, int queueCapacity, Backpressure backpressure) {
+        this.turkey = turkey;
+        String prefix = "turkey-adapter-" + POOL_ID.incrementAndGet() + "-";
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, prefix + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectedExecutionHandler(backpressure));
+    }
+
+    private static RejectedExecutionHandler rejectedExecutionHandler(Backpressure backpressure) {
+        switch (backpressure) {
+            case BLOCK:
+                return (r, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("adapter is closed");
+                    }
+                    try {
+                        executor.getQueue().put(r);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("interrupted while waiting for queue space", e);
+                    }
+                    // 等待空位时适配器可能已经关闭，工作线程取完队列后就会退出，放进去的动作不会再执行；
+                    // 和ThreadPoolExecutor.execute一样再检查一次，动作还在队列中就取出来拒绝，否则已经有工作线程在执行它
+                    if (executor.isShutdown() && executor.remove(r)) {
+                        throw new RejectedExecutionException("adapter is closed");
+                    }
+                };
+            case DROP:
+                return new ThreadPoolExecutor.AbortPolicy();
+            case CALLER_RUNS:
+                // CallerRunsPolicy在线程池关闭后会直接丢弃任务，返回的future永远不会完成，所以关闭后改为拒绝
+                return (r, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("adapter is closed");
+                    }
+                    r.run();
+                };
+            default:
+                throw new IllegalArgumentException("unknown backpressure: " + backpressure);
+        }
+    }
+
+    /**
+     * 和TurkeyAdapter一样，火鸡要飞3次才能到鸭子的距离，3次飞行在同一个任务中完成
+     */
+    @Override
+    public CompletableFuture<Void> fly() {
+        return submit(() -> {
+            turkey.fly();
+            turkey.fly();
+            turkey.fly();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> quack() {
+        return submit(turkey::gobble);
+    }
+
+    private CompletableFuture<Void> submit(Runnable action) {
+        try {
+            return CompletableFuture.runAsync(action, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 不再接收新的动作，等待已经提交的动作执行完。等待时被中断会恢复中断状态并直接返回，已经提交的动作继续执行
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.dhf.adaptor;
+
+public interface BulkTurkey extends Turkey {
+    /**
+     * 火鸡连续飞times次，默认实现逐次调用fly()，实现类可以用一次操作完成
+     */
+    default void fly(int times) {
+        for (int i = 0; i < times; i++) {
+            fly();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.dhf.adaptor;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并调用的火鸡适配器，鸭子每飞一次火鸡要飞3次，这里先累计需要飞的次数，
+ * 等累计到batchSize次、调用quack()或者flush()时再通过一次fly(int)交给火鸡，减少对被适配对象的调用次数。
+ * <p>
+ * 累计的飞行最多延迟maxDelay就会由后台线程交给火鸡，所以fly()返回时火鸡可能还没有飞，
+ * 但不会一直等到下一次调用；需要火鸡立即飞时调用flush()。火鸡的方法总是在持有适配器的锁时调用，
+ * 但可能来自后台线程
+ */
+public class CoalescingTurkeyAdapter implements Duck, AutoCloseable {
+    private static final int FLIES_PER_DUCK_FLY = 3;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+    /**
+     * 所有适配器共用的定时线程，只负责把超时的飞行交给火鸡
+     */
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "coalescing-turkey-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final BulkTurkey turkey;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private int pendingFlies;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public CoalescingTurkeyAdapter(BulkTurkey turkey, int batchSize) {
+        this(turkey, batchSize, DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxDelay 第一次累计的飞行最多等待多久交给火鸡
+     */
+    public CoalescingTurkeyAdapter(BulkTurkey turkey, int batchSize, long maxDelay, TimeUnit unit) {
+        if (batchSize < FLIES_PER_DUCK_FLY) {
+            throw new IllegalArgumentException("batchSize must be at least " + FLIES_PER_DUCK_FLY + ": " + batchSize);
+        }
+        if (maxDelay <= 0) {
+            throw new IllegalArgumentException("maxDelay must be positive: " + maxDelay);
+        }
+        this.turkey = turkey;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+    }
+
+    @Override
+    public synchronized void fly() {
+        pendingFlies += FLIES_PER_DUCK_FLY;
+        if (pendingFlies >= batchSize) {
+            flush();
+        } else if (null == scheduledFlush) {
+            scheduledFlush = SCHEDULER.schedule(this::flush, maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 叫之前先把累计的飞行交给火鸡，保证火鸡看到的动作顺序和鸭子一致
+     */
+    @Override
+    public synchronized void quack() {
+        flush();
+        turkey.gobble();
+    }
+
+    public synchronized void flush() {
+        if (null != scheduledFlush) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pendingFlies > 0) {
+            int times = pendingFlies;
+            pendingFlies = 0;
+            turkey.fly(times);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
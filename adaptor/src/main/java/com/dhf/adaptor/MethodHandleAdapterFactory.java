@@ -0,0 +1,301 @@
+package com.dhf.adaptor;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 通用的适配器工厂，根据目标接口方法到被适配接口方法的映射生成适配器，不需要为每对接口手写适配器类。
+ * 构建工厂时把映射解析成MethodHandle，并用ASM生成一个实现目标接口的适配器类，每个方法对应类中的一个
+ * static final的MethodHandle，方法体直接用invokeExact调用被适配对象。JIT会把static final的MethodHandle当作常量内联，
+ * 所以调用的开销和手写的适配器相同，不经过反射代理、参数数组和方法查找：
+ * <pre>
+ * MethodHandleAdapterFactory&lt;Duck, Turkey&gt; factory = MethodHandleAdapterFactory.builder(Duck.class, Turkey.class)
+ *         .map("quack", "gobble")
+ *         .map("fly", "fly", 3)
+ *         .build();
+ * Duck duck = factory.adapt(new ATurkey());
+ * </pre>
+ */
+public class MethodHandleAdapterFactory<T, A> {
+
+    private static final String GENERATED_PACKAGE = "com/dhf/adaptor/generated/";
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final Class<T> targetType;
+    private final Class<?> adapterClass;
+    /**
+     * 生成的适配器类的构造方法，类型为(Object)Object
+     */
+    private final MethodHandle constructor;
+
+    private MethodHandleAdapterFactory(Class<T> targetType, Class<?> adapterClass) {
+        this.targetType = targetType;
+        this.adapterClass = adapterClass;
+        try {
+            this.constructor = MethodHandles.publicLookup()
+                    .findConstructor(adapterClass, MethodType.methodType(void.class, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("cannot access generated adapter " + adapterClass.getName(), e);
+        }
+    }
+
+    public static <T, A> Builder<T, A> builder(Class<T> targetType, Class<A> adapteeType) {
+        return new Builder<>(targetType, adapteeType);
+    }
+
+    /**
+     * 创建一个把目标接口的调用转发给adaptee的适配器
+     */
+    public T adapt(A adaptee) {
+        Objects.requireNonNull(adaptee, "adaptee");
+        try {
+            return targetType.cast((Object) constructor.invokeExact((Object) adaptee));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 生成的适配器类
+     */
+    public Class<?> getAdapterClass() {
+        return adapterClass;
+    }
+
+    public static class Builder<T, A> {
+        private final Class<T> targetType;
+        private final Class<A> adapteeType;
+        private final Map<String, String> adapteeMethods = new HashMap<>();
+        private final Map<String, Integer> times = new HashMap<>();
+
+        private Builder(Class<T> targetType, Class<A> adapteeType) {
+            if (!targetType.isInterface() || !Modifier.isPublic(targetType.getModifiers())) {
+                throw new IllegalArgumentException(targetType + " is not a public interface");
+            }
+            this.targetType = targetType;
+            this.adapteeType = adapteeType;
+        }
+
+        public Builder<T, A> map(String targetMethod, String adapteeMethod) {
+            return map(targetMethod, adapteeMethod, 1);
+        }
+
+        /**
+         * 目标接口的方法调用一次时，被适配对象的方法需要调用times次
+         */
+        public Builder<T, A> map(String targetMethod, String adapteeMethod, int times) {
+            if (times < 1) {
+                throw new IllegalArgumentException("times must be positive: " + times);
+            }
+            this.adapteeMethods.put(targetMethod, adapteeMethod);
+            this.times.put(targetMethod, times);
+            return this;
+        }
+
+        public MethodHandleAdapterFactory<T, A> build() {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            // 同一个方法可能从多个父接口继承，按方法名和描述符去重
+            Map<String, Method> methods = new LinkedHashMap<>();
+            for (Method method : targetType.getMethods()) {
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                methods.putIfAbsent(method.getName() + Type.getMethodDescriptor(method), method);
+            }
+            List<Method> targetMethods = new ArrayList<>(methods.values());
+            MethodHandle[] handles = new MethodHandle[targetMethods.size()];
+            for (int i = 0; i < handles.length; i++) {
+                Method method = targetMethods.get(i);
+                String adapteeMethod = adapteeMethods.get(method.getName());
+                if (adapteeMethod == null) {
+                    throw new IllegalStateException("no mapping for " + method);
+                }
+                handles[i] = compile(lookup, method, adapteeMethod, times.get(method.getName()));
+            }
+            String className = GENERATED_PACKAGE + targetType.getSimpleName() + "Adapter" + COUNTER.incrementAndGet();
+            byte[] bytes = generate(className, targetMethods);
+            Class<?> adapterClass = new AdapterClassLoader(targetType.getClassLoader(), handles)
+                    .define(className.replace('/', '.'), bytes);
+            return new MethodHandleAdapterFactory<>(targetType, adapterClass);
+        }
+
+        /**
+         * 生成类型为(Object, 参数...)返回值的MethodHandle，调用次数大于1时重复调用被适配对象的方法，返回最后一次调用的结果
+         */
+        private MethodHandle compile(MethodHandles.Lookup lookup, Method method, String adapteeMethod, int times) {
+            MethodHandle handle;
+            try {
+                Method target = adapteeType.getMethod(adapteeMethod, method.getParameterTypes());
+                handle = lookup.unreflect(target);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("cannot map " + method + " to " + adapteeType.getName() + "."
+                        + adapteeMethod + Arrays.toString(method.getParameterTypes()), e);
+            }
+            MethodType type = MethodType.methodType(method.getReturnType(), adapteeType, method.getParameterTypes());
+            try {
+                handle = handle.asType(type);
+            } catch (WrongMethodTypeException e) {
+                throw new IllegalStateException("cannot map " + method + " to " + adapteeType.getName() + "."
+                        + adapteeMethod + ": incompatible return type " + handle.type().returnType().getName(), e);
+            }
+            MethodHandle once = handle.asType(type.changeReturnType(void.class));
+            for (int i = 1; i < times; i++) {
+                handle = MethodHandles.foldArguments(handle, once);
+            }
+            return handle.asType(type.changeParameterType(0, Object.class));
+        }
+
+        /**
+         * 生成适配器类：
+         * <pre>
+         * public final class DuckAdapter1 implements Duck {
+         *     private static final MethodHandle H0 = ((MethodHandle[]) ((Supplier) 类加载器).get())[0];
+         *     private final Object adaptee;
+         *
+         *     public void quack() {
+         *         H0.invokeExact(adaptee);
+         *     }
+         * }
+         * </pre>
+         */
+        private byte[] generate(String className, List<Method> targetMethods) {
+            String handleDescriptor = Type.getDescriptor(MethodHandle.class);
+            ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+                    "java/lang/Object", new String[]{Type.getInternalName(targetType)});
+            writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "adaptee", "Ljava/lang/Object;", null, null)
+                    .visitEnd();
+            for (int i = 0; i < targetMethods.size(); i++) {
+                writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "H" + i,
+                        handleDescriptor, null, null).visitEnd();
+            }
+
+            MethodVisitor init = writer.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+            init.visitCode();
+            init.visitLdcInsn(Type.getObjectType(className));
+            init.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Class", "getClassLoader",
+                    "()Ljava/lang/ClassLoader;", false);
+            init.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(Supplier.class));
+            init.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(Supplier.class), "get",
+                    "()Ljava/lang/Object;", true);
+            init.visitTypeInsn(Opcodes.CHECKCAST, "[" + handleDescriptor);
+            init.visitVarInsn(Opcodes.ASTORE, 0);
+            for (int i = 0; i < targetMethods.size(); i++) {
+                init.visitVarInsn(Opcodes.ALOAD, 0);
+                init.visitLdcInsn(i);
+                init.visitInsn(Opcodes.AALOAD);
+                init.visitFieldInsn(Opcodes.PUTSTATIC, className, "H" + i, handleDescriptor);
+            }
+            init.visitInsn(Opcodes.RETURN);
+            init.visitMaxs(0, 0);
+            init.visitEnd();
+
+            MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(Ljava/lang/Object;)V",
+                    null, null);
+            constructor.visitCode();
+            constructor.visitVarInsn(Opcodes.ALOAD, 0);
+            constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+            constructor.visitVarInsn(Opcodes.ALOAD, 0);
+            constructor.visitVarInsn(Opcodes.ALOAD, 1);
+            constructor.visitFieldInsn(Opcodes.PUTFIELD, className, "adaptee", "Ljava/lang/Object;");
+            constructor.visitInsn(Opcodes.RETURN);
+            constructor.visitMaxs(0, 0);
+            constructor.visitEnd();
+
+            boolean hasToString = false;
+            for (int i = 0; i < targetMethods.size(); i++) {
+                Method method = targetMethods.get(i);
+                hasToString |= "toString".equals(method.getName()) && method.getParameterCount() == 0;
+                Type type = Type.getType(method);
+                MethodVisitor visitor = writer.visitMethod(Opcodes.ACC_PUBLIC, method.getName(),
+                        type.getDescriptor(), null, null);
+                visitor.visitCode();
+                visitor.visitFieldInsn(Opcodes.GETSTATIC, className, "H" + i, handleDescriptor);
+                visitor.visitVarInsn(Opcodes.ALOAD, 0);
+                visitor.visitFieldInsn(Opcodes.GETFIELD, className, "adaptee", "Ljava/lang/Object;");
+                int slot = 1;
+                for (Type argument : type.getArgumentTypes()) {
+                    visitor.visitVarInsn(argument.getOpcode(Opcodes.ILOAD), slot);
+                    slot += argument.getSize();
+                }
+                List<Type> handleArguments = new ArrayList<>();
+                handleArguments.add(Type.getType(Object.class));
+                handleArguments.addAll(Arrays.asList(type.getArgumentTypes()));
+                visitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(MethodHandle.class),
+                        "invokeExact", Type.getMethodDescriptor(type.getReturnType(),
+                                handleArguments.toArray(new Type[0])), false);
+                visitor.visitInsn(type.getReturnType().getOpcode(Opcodes.IRETURN));
+                visitor.visitMaxs(0, 0);
+                visitor.visitEnd();
+            }
+
+            if (!hasToString) {
+                MethodVisitor toString = writer.visitMethod(Opcodes.ACC_PUBLIC, "toString", "()Ljava/lang/String;",
+                        null, null);
+                toString.visitCode();
+                toString.visitTypeInsn(Opcodes.NEW, "java/lang/StringBuilder");
+                toString.visitInsn(Opcodes.DUP);
+                toString.visitLdcInsn(targetType.getSimpleName() + "Adapter(");
+                toString.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/StringBuilder", "<init>",
+                        "(Ljava/lang/String;)V", false);
+                toString.visitVarInsn(Opcodes.ALOAD, 0);
+                toString.visitFieldInsn(Opcodes.GETFIELD, className, "adaptee", "Ljava/lang/Object;");
+                toString.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+                        "(Ljava/lang/Object;)Ljava/lang/StringBuilder;", false);
+                toString.visitLdcInsn(")");
+                toString.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+                        "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+                toString.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "toString",
+                        "()Ljava/lang/String;", false);
+                toString.visitInsn(Opcodes.ARETURN);
+                toString.visitMaxs(0, 0);
+                toString.visitEnd();
+            }
+
+            writer.visitEnd();
+            return writer.toByteArray();
+        }
+    }
+
+    /**
+     * 每个适配器类使用单独的类加载器，生成的类在初始化时通过{@link Supplier#get()}取得自己的MethodHandle
+     */
+    private static final class AdapterClassLoader extends ClassLoader implements Supplier<Object> {
+        private final MethodHandle[] handles;
+
+        AdapterClassLoader(ClassLoader parent, MethodHandle[] handles) {
+            super(parent);
+            this.handles = handles;
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+        @Override
+        public Object get() {
+            return handles;
+        }
+    }
+}
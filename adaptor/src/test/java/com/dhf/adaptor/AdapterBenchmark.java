@@ -0,0 +1,117 @@
+package com.dhf.adaptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较手写的{@link TurkeyAdapter}、{@link MethodHandleAdapterFactory}生成的适配器和
+ * 基于{@link Proxy}的反射适配器调用fly()和quack()的开销。运行方式：
+ * <pre>
+ * mvn -pl adaptor -am test-compile
+ * mvn -pl adaptor exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main AdapterBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdapterBenchmark {
+
+    private CountingTurkey turkey;
+    private Duck handWritten;
+    private Duck generated;
+    private Duck reflective;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        turkey = new CountingTurkey();
+        handWritten = new TurkeyAdapter(turkey);
+        generated = MethodHandleAdapterFactory.builder(Duck.class, Turkey.class)
+                .map("quack", "gobble")
+                .map("fly", "fly", 3)
+                .build()
+                .adapt(turkey);
+        reflective = proxy(turkey);
+    }
+
+    @Benchmark
+    public int handWritten() {
+        return swing(handWritten);
+    }
+
+    @Benchmark
+    public int generated() {
+        return swing(generated);
+    }
+
+    @Benchmark
+    public int reflectiveProxy() {
+        return swing(reflective);
+    }
+
+    private int swing(Duck duck) {
+        duck.fly();
+        duck.quack();
+        return turkey.actions;
+    }
+
+    /**
+     * 和生成的适配器相同的映射，每次调用按方法查表后通过反射调用火鸡
+     */
+    private static Duck proxy(Turkey turkey) throws NoSuchMethodException {
+        Map<Method, Method> methods = new HashMap<>();
+        Map<Method, Integer> times = new HashMap<>();
+        methods.put(Duck.class.getMethod("fly"), Turkey.class.getMethod("fly"));
+        times.put(Duck.class.getMethod("fly"), 3);
+        methods.put(Duck.class.getMethod("quack"), Turkey.class.getMethod("gobble"));
+        times.put(Duck.class.getMethod("quack"), 1);
+        return (Duck) Proxy.newProxyInstance(Duck.class.getClassLoader(), new Class<?>[]{Duck.class},
+                (proxy, method, args) -> {
+                    Method target = methods.get(method);
+                    if (null == target) {
+                        return method.invoke(turkey, args);
+                    }
+                    Object result = null;
+                    try {
+                        for (int i = times.get(method); i > 0; i--) {
+                            result = target.invoke(turkey, args);
+                        }
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return result;
+                });
+    }
+
+    private static final class CountingTurkey implements Turkey {
+        int actions;
+
+        @Override
+        public void fly() {
+            actions++;
+        }
+
+        @Override
+        public void gobble() {
+            actions++;
+        }
+    }
+}
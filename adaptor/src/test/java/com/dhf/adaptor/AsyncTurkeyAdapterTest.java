@@ -0,0 +1,202 @@
+package com.dhf.adaptor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncTurkeyAdapterTest {
+
+    @Test(timeout = 10000)
+    public void blockWaitsForQueueSpace() throws Exception {
+        GatedTurkey turkey = new GatedTurkey();
+        try (AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 1, 1, AsyncTurkeyAdapter.Backpressure.BLOCK)) {
+            CompletableFuture<Void> running = adapter.quack();
+            turkey.awaitStarted();
+            CompletableFuture<Void> queued = adapter.quack();
+
+            AtomicReference<CompletableFuture<Void>> blocked = new AtomicReference<>();
+            Thread caller = new Thread(() -> blocked.set(adapter.quack()));
+            caller.start();
+            awaitWaiting(caller);
+            assertFalse(queued.isDone());
+
+            turkey.open();
+            caller.join();
+            CompletableFuture.allOf(running, queued, blocked.get()).get(5, TimeUnit.SECONDS);
+            assertEquals(3, turkey.gobbles.size());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void blockedCallerIsNotStrandedByClose() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            GatedTurkey turkey = new GatedTurkey();
+            AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 1, 1, AsyncTurkeyAdapter.Backpressure.BLOCK);
+            adapter.quack();
+            turkey.awaitStarted();
+            adapter.quack();
+
+            AtomicReference<CompletableFuture<Void>> blocked = new AtomicReference<>();
+            Thread caller = new Thread(() -> blocked.set(adapter.quack()));
+            caller.start();
+            awaitWaiting(caller);
+            Thread closer = new Thread(adapter::close);
+            closer.start();
+            turkey.open();
+            caller.join();
+            closer.join();
+
+            // 关闭前放进队列的动作要么执行完，要么以RejectedExecutionException失败，不会一直等下去
+            try {
+                blocked.get().get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void dropFailsWhenQueueIsFull() throws Exception {
+        GatedTurkey turkey = new GatedTurkey();
+        try (AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 1, 1, AsyncTurkeyAdapter.Backpressure.DROP)) {
+            adapter.quack();
+            turkey.awaitStarted();
+            CompletableFuture<Void> queued = adapter.quack();
+
+            CompletableFuture<Void> dropped = adapter.quack();
+
+            assertRejected(dropped);
+            turkey.open();
+            queued.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, turkey.gobbles.size());
+    }
+
+    @Test(timeout = 10000)
+    public void callerRunsWhenQueueIsFull() throws Exception {
+        GatedTurkey turkey = new GatedTurkey();
+        try (AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 1, 1,
+                AsyncTurkeyAdapter.Backpressure.CALLER_RUNS)) {
+            adapter.quack();
+            turkey.awaitStarted();
+            adapter.quack();
+
+            CompletableFuture<Void> ranByCaller = adapter.quack();
+
+            assertTrue(ranByCaller.isDone());
+            assertEquals(Collections.singletonList(Thread.currentThread().getName()), turkey.gobbles);
+            turkey.open();
+        }
+        assertEquals(3, turkey.gobbles.size());
+    }
+
+    @Test
+    public void closedAdapterRejectsActions() {
+        for (AsyncTurkeyAdapter.Backpressure backpressure : AsyncTurkeyAdapter.Backpressure.values()) {
+            GatedTurkey turkey = new GatedTurkey();
+            turkey.open();
+            AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 1, 1, backpressure);
+            adapter.close();
+
+            assertRejected(adapter.fly());
+            assertRejected(adapter.quack());
+            assertEquals(backpressure.name(), 0, turkey.flies.size() + turkey.gobbles.size());
+        }
+    }
+
+    @Test
+    public void flyMakesTurkeyFlyThreeTimes() throws Exception {
+        GatedTurkey turkey = new GatedTurkey();
+        turkey.open();
+        try (AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 2, 4, AsyncTurkeyAdapter.Backpressure.BLOCK)) {
+            adapter.fly().get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(3, turkey.flies.size());
+    }
+
+    @Test(timeout = 10000)
+    public void interruptedCloseRestoresInterruptStatus() throws Exception {
+        GatedTurkey turkey = new GatedTurkey();
+        AsyncTurkeyAdapter adapter = new AsyncTurkeyAdapter(turkey, 1, 1, AsyncTurkeyAdapter.Backpressure.BLOCK);
+        CompletableFuture<Void> running = adapter.quack();
+        turkey.awaitStarted();
+
+        Thread.currentThread().interrupt();
+        adapter.close();
+
+        assertTrue(Thread.interrupted());
+        turkey.open();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    private static void assertRejected(CompletableFuture<Void> future) {
+        try {
+            future.getNow(null);
+            fail("action should be rejected");
+        } catch (RuntimeException e) {
+            assertTrue(String.valueOf(e), e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * 线程池中的线程执行动作时停在gate上，直到调用open()，记录执行每个动作的线程
+     */
+    private static final class GatedTurkey implements Turkey {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<String> flies = Collections.synchronizedList(new ArrayList<>());
+        final List<String> gobbles = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void fly() {
+            await();
+            flies.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void gobble() {
+            await();
+            gobbles.add(Thread.currentThread().getName());
+        }
+
+        private void await() {
+            // 只有线程池中的线程停在gate上，调用方线程直接执行
+            if (!Thread.currentThread().getName().startsWith("turkey-adapter-")) {
+                return;
+            }
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitStarted() throws InterruptedException {
+            started.await();
+        }
+
+        void open() {
+            gate.countDown();
+        }
+    }
+}
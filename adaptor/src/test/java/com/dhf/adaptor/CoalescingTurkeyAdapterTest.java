@@ -0,0 +1,119 @@
+package com.dhf.adaptor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingTurkeyAdapterTest {
+
+    private static final long LONG_DELAY_SECONDS = 60;
+
+    @Test
+    public void fliesAreHandedOverWhenBatchIsFull() {
+        RecordingTurkey turkey = new RecordingTurkey();
+        CoalescingTurkeyAdapter adapter = new CoalescingTurkeyAdapter(turkey, 9, LONG_DELAY_SECONDS, TimeUnit.SECONDS);
+
+        adapter.fly();
+        adapter.fly();
+        assertEquals(Collections.emptyList(), turkey.actions());
+
+        adapter.fly();
+        assertEquals(Collections.singletonList("fly 9"), turkey.actions());
+    }
+
+    @Test
+    public void flushAndCloseHandOverPendingFlies() {
+        RecordingTurkey turkey = new RecordingTurkey();
+        CoalescingTurkeyAdapter adapter = new CoalescingTurkeyAdapter(turkey, 30, LONG_DELAY_SECONDS, TimeUnit.SECONDS);
+
+        adapter.fly();
+        adapter.flush();
+        adapter.flush();
+        adapter.fly();
+        adapter.fly();
+        adapter.close();
+
+        assertEquals(Arrays.asList("fly 3", "fly 6"), turkey.actions());
+    }
+
+    @Test
+    public void quackKeepsOrderOfActions() {
+        RecordingTurkey turkey = new RecordingTurkey();
+        try (CoalescingTurkeyAdapter adapter = new CoalescingTurkeyAdapter(turkey, 30, LONG_DELAY_SECONDS,
+                TimeUnit.SECONDS)) {
+            adapter.fly();
+            adapter.fly();
+            adapter.quack();
+            adapter.quack();
+        }
+
+        assertEquals(Arrays.asList("fly 6", "gobble", "gobble"), turkey.actions());
+    }
+
+    @Test(timeout = 10000)
+    public void pendingFliesAreHandedOverAfterMaxDelay() throws InterruptedException {
+        RecordingTurkey turkey = new RecordingTurkey();
+        CoalescingTurkeyAdapter adapter = new CoalescingTurkeyAdapter(turkey, 30, 20, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        adapter.fly();
+        while (turkey.actions().isEmpty()) {
+            Thread.sleep(1);
+        }
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(Collections.singletonList("fly 3"), turkey.actions());
+    }
+
+    @Test
+    public void flushCancelsDelayedHandOver() throws InterruptedException {
+        RecordingTurkey turkey = new RecordingTurkey();
+        CoalescingTurkeyAdapter adapter = new CoalescingTurkeyAdapter(turkey, 30, 20, TimeUnit.MILLISECONDS);
+
+        adapter.fly();
+        adapter.flush();
+        Thread.sleep(100);
+
+        assertEquals(Collections.singletonList("fly 3"), turkey.actions());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSmallerThanOneDuckFlyIsRejected() {
+        new CoalescingTurkeyAdapter(new RecordingTurkey(), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveMaxDelayIsRejected() {
+        new CoalescingTurkeyAdapter(new RecordingTurkey(), 3, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class RecordingTurkey implements BulkTurkey {
+        private final List<String> actions = new ArrayList<>();
+
+        @Override
+        public synchronized void fly() {
+            actions.add("fly 1");
+        }
+
+        @Override
+        public synchronized void fly(int times) {
+            actions.add("fly " + times);
+        }
+
+        @Override
+        public synchronized void gobble() {
+            actions.add("gobble");
+        }
+
+        synchronized List<String> actions() {
+            return new ArrayList<>(actions);
+        }
+    }
+}
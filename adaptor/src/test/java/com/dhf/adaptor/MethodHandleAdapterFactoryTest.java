@@ -0,0 +1,253 @@
+package com.dhf.adaptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodHandleAdapterFactoryTest {
+
+    @Test
+    public void primitiveReferenceAndVoidMethodsAreForwarded() {
+        MethodHandleAdapterFactory<Calculator, LegacyCalculator> factory = calculatorFactory();
+        LegacyCalculator legacy = new LegacyCalculator();
+        Calculator calculator = factory.adapt(legacy);
+
+        assertEquals(5, calculator.add(2, 3));
+        assertEquals(1L << 40, calculator.twice(1L << 39));
+        assertEquals(1.25, calculator.half(2.5), 0);
+        assertTrue(calculator.isPositive(1));
+        assertFalse(calculator.isPositive(-1));
+        assertEquals('b', calculator.next('a'));
+        assertEquals("旧计算器", calculator.name());
+        calculator.reset();
+        assertEquals(1, legacy.clears);
+    }
+
+    @Test
+    public void repeatedMappingCallsAdapteeTimesAndReturnsLastResult() {
+        CountingTurkey turkey = new CountingTurkey();
+        Duck duck = MethodHandleAdapterFactory.builder(Duck.class, Turkey.class)
+                .map("quack", "gobble")
+                .map("fly", "fly", 3)
+                .build()
+                .adapt(turkey);
+
+        duck.fly();
+        duck.fly();
+        duck.quack();
+        assertEquals(6, turkey.flies);
+        assertEquals(1, turkey.gobbles);
+
+        Counter counter = new Counter();
+        Ticker ticker = MethodHandleAdapterFactory.builder(Ticker.class, Counter.class)
+                .map("tick", "increment", 4)
+                .build()
+                .adapt(counter);
+        assertEquals(4, ticker.tick());
+        assertEquals(8, ticker.tick());
+    }
+
+    @Test
+    public void adaptersShareTheGeneratedClass() {
+        MethodHandleAdapterFactory<Calculator, LegacyCalculator> factory = calculatorFactory();
+        Calculator first = factory.adapt(new LegacyCalculator());
+        Calculator second = factory.adapt(new LegacyCalculator());
+
+        assertNotSame(first, second);
+        assertSame(factory.getAdapterClass(), first.getClass());
+        assertSame(first.getClass(), second.getClass());
+        assertTrue(first.toString().startsWith("CalculatorAdapter("));
+        assertNotSame(factory.getAdapterClass(), calculatorFactory().getAdapterClass());
+    }
+
+    @Test
+    public void adapteeExceptionsPropagateUnwrapped() {
+        Duck duck = MethodHandleAdapterFactory.builder(Duck.class, Turkey.class)
+                .map("quack", "gobble")
+                .map("fly", "fly")
+                .build()
+                .adapt(new Turkey() {
+                    @Override
+                    public void fly() {
+                        throw new UnsupportedOperationException("火鸡受伤了");
+                    }
+
+                    @Override
+                    public void gobble() {
+                    }
+                });
+
+        try {
+            duck.fly();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("火鸡受伤了", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void unmappedMethodIsRejected() {
+        try {
+            MethodHandleAdapterFactory.builder(Duck.class, Turkey.class).map("fly", "fly", 3).build();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("no mapping for"));
+            assertTrue(expected.getMessage(), expected.getMessage().contains("quack"));
+        }
+    }
+
+    @Test
+    public void mappingToMissingMethodIsRejected() {
+        assertCannotMap(MethodHandleAdapterFactory.builder(Duck.class, Turkey.class)
+                .map("quack", "honk")
+                .map("fly", "fly"));
+    }
+
+    @Test
+    public void mappingWithDifferentParametersIsRejected() {
+        // twice(long)在旧计算器中没有参数相同的add方法
+        assertCannotMap(MethodHandleAdapterFactory.builder(Calculator.class, LegacyCalculator.class)
+                .map("add", "sum")
+                .map("twice", "sum")
+                .map("half", "halve")
+                .map("isPositive", "positive")
+                .map("next", "successor")
+                .map("name", "label")
+                .map("reset", "clear"));
+    }
+
+    @Test
+    public void mappingWithIncompatibleReturnTypeIsRejected() {
+        assertCannotMap(MethodHandleAdapterFactory.builder(Ticker.class, Counter.class)
+                .map("tick", "describe"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveTimesIsRejected() {
+        MethodHandleAdapterFactory.builder(Duck.class, Turkey.class).map("fly", "fly", 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void classTargetIsRejected() {
+        MethodHandleAdapterFactory.builder(TurkeyAdapter.class, Turkey.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPublicInterfaceIsRejected() {
+        MethodHandleAdapterFactory.builder(Hidden.class, Turkey.class);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullAdapteeIsRejected() {
+        calculatorFactory().adapt(null);
+    }
+
+    private static MethodHandleAdapterFactory<Calculator, LegacyCalculator> calculatorFactory() {
+        return MethodHandleAdapterFactory.builder(Calculator.class, LegacyCalculator.class)
+                .map("add", "sum")
+                .map("twice", "doubled")
+                .map("half", "halve")
+                .map("isPositive", "positive")
+                .map("next", "successor")
+                .map("name", "label")
+                .map("reset", "clear")
+                .build();
+    }
+
+    private static void assertCannotMap(MethodHandleAdapterFactory.Builder<?, ?> builder) {
+        try {
+            builder.build();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("cannot map"));
+        }
+    }
+
+    public interface Calculator {
+        int add(int a, int b);
+
+        long twice(long value);
+
+        double half(double value);
+
+        boolean isPositive(int value);
+
+        char next(char value);
+
+        String name();
+
+        void reset();
+    }
+
+    public static class LegacyCalculator {
+        int clears;
+
+        public int sum(int a, int b) {
+            return a + b;
+        }
+
+        public long doubled(long value) {
+            return value * 2;
+        }
+
+        public double halve(double value) {
+            return value / 2;
+        }
+
+        public boolean positive(int value) {
+            return value > 0;
+        }
+
+        public char successor(char value) {
+            return (char) (value + 1);
+        }
+
+        public String label() {
+            return "旧计算器";
+        }
+
+        public void clear() {
+            clears++;
+        }
+    }
+
+    public interface Ticker {
+        int tick();
+    }
+
+    public static class Counter {
+        private int count;
+
+        public int increment() {
+            return ++count;
+        }
+
+        public String describe() {
+            return "计数器" + count;
+        }
+    }
+
+    interface Hidden {
+        void fly();
+    }
+
+    static final class CountingTurkey implements Turkey {
+        int flies;
+        int gobbles;
+
+        @Override
+        public void fly() {
+            flies++;
+        }
+
+        @Override
+        public void gobble() {
+            gobbles++;
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.dhf;
 
 import com.dhf.bridge.FlyingEnchantment;
 import com.dhf.bridge.Hammer;
+import com.dhf.bridge.RefCountedEnchantment;
 import com.dhf.bridge.SoulEatingEnchantment;
 import com.dhf.bridge.Sword;
+import com.dhf.bridge.WeaponBatch;
+import com.dhf.bridge.WeaponKind;
+import com.dhf.bridge.WeaponStore;
+import com.dhf.common.EventJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,16 +22,54 @@ public class Application {
         enchantedSword.swing();
         enchantedSword.unWield();
 
+        // 武器和魔法的事件由后台线程异步输出，先等它们输出完再打印下一段说明
+        EventJournal.getDefault().flush();
         LOGGER.info("骑士收到一把会飞的附魔剑");
         enchantedSword = new Sword(new FlyingEnchantment());
         enchantedSword.wield();
         enchantedSword.swing();
         enchantedSword.unWield();
 
+        EventJournal.getDefault().flush();
         LOGGER.info("女武神得到了一个会飞的附魔锤子");
         Hammer hammer = new Hammer(new FlyingEnchantment());
         hammer.wield();
         hammer.swing();
         hammer.unWield();
+
+        EventJournal.getDefault().flush();
+        LOGGER.info("骑士和女武神共用一个会飞的魔法");
+        RefCountedEnchantment sharedEnchantment = new RefCountedEnchantment(new FlyingEnchantment());
+        Sword sword = new Sword(sharedEnchantment);
+        hammer = new Hammer(sharedEnchantment);
+        sword.wield();
+        hammer.wield();
+        sword.swing();
+        hammer.swing();
+        sword.unWield();
+        hammer.unWield();
+
+        EventJournal.getDefault().flush();
+        LOGGER.info("一支军队按魔法分组挥舞武器");
+        WeaponBatch army = new WeaponBatch()
+                .add(new Sword(new FlyingEnchantment()))
+                .add(new Hammer(new SoulEatingEnchantment()))
+                .add(new Hammer(new FlyingEnchantment()))
+                .add(new Sword(new SoulEatingEnchantment()));
+        army.wieldAll();
+        army.swingAll();
+        army.unWieldAll();
+
+        EventJournal.getDefault().flush();
+        LOGGER.info("紧凑地存储一支军队的武器");
+        WeaponStore store = new WeaponStore();
+        int flying = store.registerEnchantment(new FlyingEnchantment());
+        int soulEating = store.registerEnchantment(new SoulEatingEnchantment());
+        store.add(WeaponKind.SWORD, flying);
+        store.add(WeaponKind.HAMMER, soulEating);
+        store.wieldAll();
+        store.get(1).swing();
+        store.unWieldAll();
+        EventJournal.getDefault().flush();
     }
 }
@@ -18,4 +18,22 @@ public interface Enchantment {
      * 取消魔法
      */
     void onDeactivate();
+
+    /**
+     * 包装其他魔法的实现返回最里层的魔法，包装类的apply()和被包装魔法的apply()必须完全一样，{@link WeaponBatch}按它的类型分组
+     */
+    default Enchantment unwrap() {
+        return this;
+    }
+
+    /**
+     * 批量挥舞一组武器，这些武器的魔法unwrap()后都和这个魔法是同一个类型。
+     * 默认逐个调用{@link Weapon#swing()}，所有魔法共用同一个apply()调用点；
+     * 实现类可以传入在自己的类中创建的动作，这样每种魔法的apply()调用点只会看到这一种魔法，可以被JIT内联
+     */
+    default void swingAll(Weapon[] weapons, int size) {
+        for (int i = 0; i < size; i++) {
+            weapons[i].swing();
+        }
+    }
 }
@@ -1,26 +1,44 @@
 package com.dhf.bridge;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Consumer;
+
 /**
  * 飞行魔法
  */
 public class FlyingEnchantment implements Enchantment {
     private static final Logger LOGGER = LoggerFactory.getLogger(FlyingEnchantment.class);
+    private static final EventType ACTIVATE = new EventType(LOGGER, "物品开始微弱地发光");
+    private static final EventType APPLY = new EventType(LOGGER, "该物品飞走并击中了敌人，最终回到了主人的手中");
+    private static final EventType DEACTIVATE = new EventType(LOGGER, "物品的光晕消失");
+    /**
+     * 批量挥舞时使用魔法的动作，其中的apply()调用点只会看到FlyingEnchantment
+     */
+    private static final Consumer<Enchantment> BATCH_APPLY = enchantment -> ((FlyingEnchantment) enchantment.unwrap()).apply();
 
     @Override
     public void onActivate() {
-        LOGGER.info("物品开始微弱地发光");
+        EventJournal.getDefault().emit(ACTIVATE);
     }
 
     @Override
     public void apply() {
-        LOGGER.info("该物品飞走并击中了敌人，最终回到了主人的手中");
+        EventJournal.getDefault().emit(APPLY);
     }
 
     @Override
     public void onDeactivate() {
-        LOGGER.info("物品的光晕消失");
+        EventJournal.getDefault().emit(DEACTIVATE);
+    }
+
+    @Override
+    public void swingAll(Weapon[] weapons, int size) {
+        for (int i = 0; i < size; i++) {
+            weapons[i].swing(BATCH_APPLY);
+        }
     }
 }
@@ -1,5 +1,7 @@
 package com.dhf.bridge;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,6 +10,9 @@ import org.slf4j.LoggerFactory;
  */
 public class Hammer implements Weapon {
     private static final Logger LOGGER = LoggerFactory.getLogger(Hammer.class);
+    private static final EventType WIELD = new EventType(LOGGER, "拿出锤子");
+    private static final EventType SWING = new EventType(LOGGER, "挥舞锤子");
+    private static final EventType UNWIELD = new EventType(LOGGER, "收起锤子");
 
     private final Enchantment enchantment;
 
@@ -17,19 +22,18 @@ public class Hammer implements Weapon {
 
     @Override
     public void wield() {
-        LOGGER.info("拿出锤子");
+        EventJournal.getDefault().emit(WIELD);
         enchantment.onActivate();
     }
 
     @Override
-    public void swing() {
-        LOGGER.info("挥舞锤子");
-        enchantment.apply();
+    public void brandish() {
+        EventJournal.getDefault().emit(SWING);
     }
 
     @Override
     public void unWield() {
-        LOGGER.info("收起锤子");
+        EventJournal.getDefault().emit(UNWIELD);
         enchantment.onDeactivate();
     }
 
@@ -37,4 +41,5 @@ public class Hammer implements Weapon {
     public Enchantment getEnchantment() {
         return enchantment;
     }
+
 }
@@ -0,0 +1,52 @@
+package com.dhf.bridge;
+
+/**
+ * 引用计数的魔法，多把武器共享同一个魔法时，只有第一把武器出鞘时激活魔法，最后一把武器收鞘时才取消魔法。
+ * 激活和取消在同一把锁下完成，并发出鞘、收鞘时不会重复激活，也不会在其他武器还在使用时取消。
+ * 被包装魔法的激活或取消抛出异常时计数不变，可以再次出鞘或收鞘
+ */
+public class RefCountedEnchantment implements Enchantment {
+    private final Enchantment enchantment;
+    private int activeCount;
+
+    public RefCountedEnchantment(Enchantment enchantment) {
+        this.enchantment = enchantment;
+    }
+
+    @Override
+    public synchronized void onActivate() {
+        // 激活成功之后才计数，onActivate()抛出异常时这把武器不算出鞘
+        if (activeCount == 0) {
+            enchantment.onActivate();
+        }
+        activeCount++;
+    }
+
+    @Override
+    public void apply() {
+        enchantment.apply();
+    }
+
+    @Override
+    public synchronized void onDeactivate() {
+        if (activeCount == 0) {
+            throw new IllegalStateException("enchantment is not active");
+        }
+        if (activeCount == 1) {
+            enchantment.onDeactivate();
+        }
+        activeCount--;
+    }
+
+    /**
+     * apply()直接交给被包装的魔法，批量挥舞时和被包装的魔法分在同一组
+     */
+    @Override
+    public Enchantment unwrap() {
+        return enchantment.unwrap();
+    }
+
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+}
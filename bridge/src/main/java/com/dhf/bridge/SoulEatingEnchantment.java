@@ -1,26 +1,44 @@
 package com.dhf.bridge;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Consumer;
+
 /**
  * 噬魂魔法
  */
 public class SoulEatingEnchantment implements Enchantment {
     private static final Logger LOGGER = LoggerFactory.getLogger(SoulEatingEnchantment.class);
+    private static final EventType ACTIVATE = new EventType(LOGGER, "该物品散布嗜血的味道");
+    private static final EventType APPLY = new EventType(LOGGER, "该物品吞噬了敌人的灵魂");
+    private static final EventType DEACTIVATE = new EventType(LOGGER, "嗜血慢慢消失");
+    /**
+     * 批量挥舞时使用魔法的动作，其中的apply()调用点只会看到SoulEatingEnchantment
+     */
+    private static final Consumer<Enchantment> BATCH_APPLY = enchantment -> ((SoulEatingEnchantment) enchantment.unwrap()).apply();
 
     @Override
     public void onActivate() {
-        LOGGER.info("该物品散布嗜血的味道");
+        EventJournal.getDefault().emit(ACTIVATE);
     }
 
     @Override
     public void apply() {
-        LOGGER.info("该物品吞噬了敌人的灵魂");
+        EventJournal.getDefault().emit(APPLY);
     }
 
     @Override
     public void onDeactivate() {
-        LOGGER.info("嗜血慢慢消失");
+        EventJournal.getDefault().emit(DEACTIVATE);
+    }
+
+    @Override
+    public void swingAll(Weapon[] weapons, int size) {
+        for (int i = 0; i < size; i++) {
+            weapons[i].swing(BATCH_APPLY);
+        }
     }
 }
@@ -1,5 +1,7 @@
 package com.dhf.bridge;
 
+import java.util.function.Consumer;
+
 /**
  * 武器
  */
@@ -10,9 +12,25 @@ public interface Weapon {
     void wield();
 
     /**
-     * 挥舞
+     * 挥舞，先是武器本身的动作，再使用魔法
+     */
+    default void swing() {
+        swing(Enchantment::apply);
+    }
+
+    /**
+     * 挥舞，武器本身的动作之后由apply使用{@link #getEnchantment()}返回的魔法。
+     * {@link Enchantment#swingAll(Weapon[], int)}通过它传入在魔法自己的类中创建的动作
+     */
+    default void swing(Consumer<? super Enchantment> apply) {
+        brandish();
+        apply.accept(getEnchantment());
+    }
+
+    /**
+     * 挥舞时武器本身的动作，不包括魔法
      */
-    void swing();
+    void brandish();
 
     /**
      * 收鞘
@@ -0,0 +1,93 @@
+package com.dhf.bridge;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 批量操作武器，加入的武器按魔法{@link Enchantment#unwrap()}后的具体类型分组保存，批量挥舞时逐组处理。
+ * 逐个调用{@link Weapon#swing()}时所有魔法都经过同一个apply()调用点，魔法种类多了之后这个调用点是megamorphic的，
+ * 按类型分组后的顺序对它没有帮助。所以批量挥舞时每组交给该组魔法的{@link Enchantment#swingAll(Weapon[], int)}，
+ * 循环写在每种魔法自己的类中，循环里的apply()调用点只会看到一种魔法，可以被JIT内联；挥舞的动作仍然由武器完成。
+ * 每组可以在不同线程中并行处理，组内的顺序和加入的顺序一致
+ */
+public class WeaponBatch {
+    private final Map<Class<? extends Enchantment>, Group> groups = new LinkedHashMap<>();
+    private int size;
+
+    public WeaponBatch add(Weapon weapon) {
+        Enchantment enchantment = weapon.getEnchantment().unwrap();
+        groups.computeIfAbsent(enchantment.getClass(), type -> new Group(enchantment)).add(weapon);
+        size++;
+        return this;
+    }
+
+    public WeaponBatch addAll(Collection<? extends Weapon> weapons) {
+        for (Weapon weapon : weapons) {
+            add(weapon);
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int groupCount() {
+        return groups.size();
+    }
+
+    public void wieldAll() {
+        for (Group group : groups.values()) {
+            for (int i = 0; i < group.size; i++) {
+                group.weapons[i].wield();
+            }
+        }
+    }
+
+    public void swingAll() {
+        for (Group group : groups.values()) {
+            group.swing();
+        }
+    }
+
+    /**
+     * 每组魔法在公共ForkJoin线程池中并行挥舞，魔法的实现需要是线程安全的
+     */
+    public void swingAllParallel() {
+        groups.values().parallelStream().forEach(Group::swing);
+    }
+
+    public void unWieldAll() {
+        for (Group group : groups.values()) {
+            for (int i = 0; i < group.size; i++) {
+                group.weapons[i].unWield();
+            }
+        }
+    }
+
+    /**
+     * 同一种魔法的武器，由该组第一个魔法负责批量挥舞
+     */
+    private static final class Group {
+        final Enchantment leader;
+        Weapon[] weapons = new Weapon[8];
+        int size;
+
+        Group(Enchantment leader) {
+            this.leader = leader;
+        }
+
+        void add(Weapon weapon) {
+            if (size == weapons.length) {
+                weapons = Arrays.copyOf(weapons, size << 1);
+            }
+            weapons[size++] = weapon;
+        }
+
+        void swing() {
+            leader.swingAll(weapons, size);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.dhf.bridge;
+
+import java.util.function.Function;
+
+/**
+ * 武器种类
+ */
+public enum WeaponKind {
+    SWORD(Sword::new),
+    HAMMER(Hammer::new);
+
+    private final Function<Enchantment, Weapon> constructor;
+
+    WeaponKind(Function<Enchantment, Weapon> constructor) {
+        this.constructor = constructor;
+    }
+
+    public Weapon create(Enchantment enchantment) {
+        return constructor.apply(enchantment);
+    }
+}
@@ -0,0 +1,201 @@
+package com.dhf.bridge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑存储大量武器，每把武器只占一个byte：最低位是否出鞘，接下来是武器种类，剩下的高位是魔法编号。
+ * 武器种类占的位数由{@link WeaponKind}的数量决定，现在两种武器占1位，魔法编号占6位。
+ * 魔法需要先注册，同一种武器和魔法的组合共享同一个Sword或Hammer对象，
+ * 通过{@link #get(int)}得到的武器只是读写该byte的视图
+ */
+public class WeaponStore {
+    private static final WeaponKind[] KINDS = WeaponKind.values();
+    private static final int WIELDED = 1;
+    private static final int KIND_SHIFT = 1;
+    /**
+     * 能放下所有武器种类编号的最少位数
+     */
+    private static final int KIND_BITS = 32 - Integer.numberOfLeadingZeros(KINDS.length - 1);
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    private static final int ENCHANTMENT_SHIFT = KIND_SHIFT + KIND_BITS;
+    static final int MAX_ENCHANTMENTS = 1 << (Byte.SIZE - ENCHANTMENT_SHIFT);
+
+    static {
+        if (ENCHANTMENT_SHIFT >= Byte.SIZE) {
+            throw new IllegalStateException("too many weapon kinds to pack into a byte: " + KINDS.length);
+        }
+    }
+
+    private final List<Enchantment> enchantments = new ArrayList<>();
+    /**
+     * 下标为(魔法编号 << KIND_BITS | 武器种类)
+     */
+    private Weapon[] shared = new Weapon[0];
+    private byte[] weapons;
+    private int size;
+
+    public WeaponStore() {
+        this(16);
+    }
+
+    public WeaponStore(int initialCapacity) {
+        this.weapons = new byte[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * 注册一个魔法，返回魔法编号
+     */
+    public int registerEnchantment(Enchantment enchantment) {
+        if (enchantments.size() == MAX_ENCHANTMENTS) {
+            throw new IllegalStateException("at most " + MAX_ENCHANTMENTS + " enchantments are supported");
+        }
+        int id = enchantments.size();
+        enchantments.add(enchantment);
+        shared = Arrays.copyOf(shared, enchantments.size() << KIND_BITS);
+        for (WeaponKind kind : KINDS) {
+            shared[id << KIND_BITS | kind.ordinal()] = kind.create(enchantment);
+        }
+        return id;
+    }
+
+    /**
+     * 添加一把未出鞘的武器，返回武器的下标
+     */
+    public int add(WeaponKind kind, int enchantmentId) {
+        if (enchantmentId < 0 || enchantmentId >= enchantments.size()) {
+            throw new IllegalArgumentException("unknown enchantment id: " + enchantmentId);
+        }
+        if (size == weapons.length) {
+            weapons = Arrays.copyOf(weapons, weapons.length << 1);
+        }
+        weapons[size] = (byte) (enchantmentId << ENCHANTMENT_SHIFT | kind.ordinal() << KIND_SHIFT);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Weapon get(int index) {
+        checkIndex(index);
+        return new WeaponView(index);
+    }
+
+    public WeaponKind getKind(int index) {
+        checkIndex(index);
+        return KINDS[(weapons[index] >> KIND_SHIFT) & KIND_MASK];
+    }
+
+    public Enchantment getEnchantment(int index) {
+        checkIndex(index);
+        return enchantments.get((weapons[index] & 0xFF) >>> ENCHANTMENT_SHIFT);
+    }
+
+    public boolean isWielded(int index) {
+        checkIndex(index);
+        return (weapons[index] & WIELDED) != 0;
+    }
+
+    public void wield(int index) {
+        checkIndex(index);
+        doWield(index);
+    }
+
+    public void swing(int index) {
+        checkIndex(index);
+        doSwing(index);
+    }
+
+    public void unWield(int index) {
+        checkIndex(index);
+        doUnWield(index);
+    }
+
+    public void wieldAll() {
+        for (int i = 0; i < size; i++) {
+            doWield(i);
+        }
+    }
+
+    /**
+     * 只有出鞘的武器会被挥舞
+     */
+    public void swingAll() {
+        for (int i = 0; i < size; i++) {
+            if ((weapons[i] & WIELDED) != 0) {
+                doSwing(i);
+            }
+        }
+    }
+
+    public void unWieldAll() {
+        for (int i = 0; i < size; i++) {
+            doUnWield(i);
+        }
+    }
+
+    private void doWield(int index) {
+        byte weapon = weapons[index];
+        if ((weapon & WIELDED) == 0) {
+            weapons[index] = (byte) (weapon | WIELDED);
+            shared(weapon).wield();
+        }
+    }
+
+    private void doSwing(int index) {
+        shared(weapons[index]).swing();
+    }
+
+    private void doUnWield(int index) {
+        byte weapon = weapons[index];
+        if ((weapon & WIELDED) != 0) {
+            weapons[index] = (byte) (weapon & ~WIELDED);
+            shared(weapon).unWield();
+        }
+    }
+
+    private Weapon shared(byte weapon) {
+        return shared[(weapon & 0xFF) >>> KIND_SHIFT];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private class WeaponView implements Weapon {
+        private final int index;
+
+        WeaponView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void wield() {
+            doWield(index);
+        }
+
+        @Override
+        public void swing() {
+            doSwing(index);
+        }
+
+        @Override
+        public void brandish() {
+            shared(weapons[index]).brandish();
+        }
+
+        @Override
+        public void unWield() {
+            doUnWield(index);
+        }
+
+        @Override
+        public Enchantment getEnchantment() {
+            return WeaponStore.this.getEnchantment(index);
+        }
+    }
+}
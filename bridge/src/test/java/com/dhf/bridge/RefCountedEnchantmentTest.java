@@ -0,0 +1,158 @@
+package com.dhf.bridge;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RefCountedEnchantmentTest {
+
+    @Test
+    public void onlyFirstWieldAndLastUnWieldReachTheEnchantment() {
+        CountingEnchantment counting = new CountingEnchantment();
+        RefCountedEnchantment enchantment = new RefCountedEnchantment(counting);
+        Sword sword = new Sword(enchantment);
+        Hammer hammer = new Hammer(enchantment);
+
+        sword.wield();
+        hammer.wield();
+        assertEquals(1, counting.activations.get());
+        sword.unWield();
+        assertEquals(0, counting.deactivations.get());
+        hammer.unWield();
+
+        assertEquals(1, counting.deactivations.get());
+        assertEquals(0, enchantment.getActiveCount());
+    }
+
+    @Test
+    public void failedActivationIsNotCounted() {
+        CountingEnchantment counting = new CountingEnchantment();
+        counting.failActivations = 1;
+        RefCountedEnchantment enchantment = new RefCountedEnchantment(counting);
+
+        try {
+            enchantment.onActivate();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("activation failed", expected.getMessage());
+        }
+        assertEquals(0, enchantment.getActiveCount());
+
+        // 再次出鞘时重新激活
+        enchantment.onActivate();
+        assertEquals(1, enchantment.getActiveCount());
+        assertEquals(1, counting.activations.get());
+        enchantment.onDeactivate();
+        assertEquals(1, counting.deactivations.get());
+    }
+
+    @Test
+    public void failedDeactivationKeepsTheCount() {
+        CountingEnchantment counting = new CountingEnchantment();
+        counting.failDeactivations = 1;
+        RefCountedEnchantment enchantment = new RefCountedEnchantment(counting);
+        enchantment.onActivate();
+
+        try {
+            enchantment.onDeactivate();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("deactivation failed", expected.getMessage());
+        }
+        assertEquals(1, enchantment.getActiveCount());
+
+        enchantment.onDeactivate();
+        assertEquals(0, enchantment.getActiveCount());
+        assertEquals(1, counting.deactivations.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unWieldWithoutWieldIsRejected() {
+        new RefCountedEnchantment(new CountingEnchantment()).onDeactivate();
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentWieldAndUnWieldNeverOverlapActivations() throws Exception {
+        CountingEnchantment counting = new CountingEnchantment();
+        RefCountedEnchantment enchantment = new RefCountedEnchantment(counting);
+        int threads = 8;
+        int rounds = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                Weapon weapon = (t & 1) == 0 ? new Sword(enchantment) : new Hammer(enchantment);
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        weapon.wield();
+                        weapon.unWield();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, enchantment.getActiveCount());
+        assertEquals(counting.activations.get(), counting.deactivations.get());
+        assertTrue(counting.activations.get() >= 1);
+        assertEquals(0, counting.overlaps.get());
+    }
+
+    /**
+     * 记录激活和取消的次数，同时有两次激活时记为重叠
+     */
+    private static final class CountingEnchantment implements Enchantment {
+        final AtomicInteger activations = new AtomicInteger();
+        final AtomicInteger deactivations = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        int failActivations;
+        int failDeactivations;
+
+        @Override
+        public void onActivate() {
+            if (failActivations > 0) {
+                failActivations--;
+                throw new IllegalStateException("activation failed");
+            }
+            activations.incrementAndGet();
+            if (active.incrementAndGet() != 1) {
+                overlaps.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void apply() {
+        }
+
+        @Override
+        public void onDeactivate() {
+            if (failDeactivations > 0) {
+                failDeactivations--;
+                throw new IllegalStateException("deactivation failed");
+            }
+            deactivations.incrementAndGet();
+            if (active.decrementAndGet() != 0) {
+                overlaps.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.dhf.bridge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较逐个挥舞混合在一起的武器列表和用{@link WeaponBatch}按魔法分组挥舞的开销。
+ * 武器混合了三种魔法，所以Sword和Hammer中的apply()调用点是megamorphic的。运行方式：
+ * <pre>
+ * mvn -pl bridge -am test-compile
+ * mvn -pl bridge exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main WeaponBatchBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WeaponBatchBenchmark {
+
+    @Param({"1024"})
+    private int weapons;
+
+    private List<Weapon> mixed;
+    private WeaponBatch batch;
+
+    @Setup
+    public void setUp() {
+        mixed = new ArrayList<>(weapons);
+        for (int i = 0; i < weapons; i++) {
+            Enchantment enchantment;
+            switch (i % 3) {
+                case 0:
+                    enchantment = new FlyingEnchantment();
+                    break;
+                case 1:
+                    enchantment = new SoulEatingEnchantment();
+                    break;
+                default:
+                    enchantment = new RefCountedEnchantment(new FlyingEnchantment());
+                    break;
+            }
+            mixed.add((i & 1) == 0 ? new Sword(enchantment) : new Hammer(enchantment));
+        }
+        batch = new WeaponBatch().addAll(mixed);
+    }
+
+    @Benchmark
+    public void swingMixedList() {
+        for (Weapon weapon : mixed) {
+            weapon.swing();
+        }
+    }
+
+    @Benchmark
+    public void swingBatch() {
+        batch.swingAll();
+    }
+}
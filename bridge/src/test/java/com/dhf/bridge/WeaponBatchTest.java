@@ -0,0 +1,150 @@
+package com.dhf.bridge;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WeaponBatchTest {
+
+    @Test
+    public void wrappedEnchantmentsShareTheGroupOfTheWrappedType() {
+        List<String> actions = new ArrayList<>();
+        WeaponBatch batch = new WeaponBatch()
+                .add(new RecordingWeapon("a", new FlyingEnchantment(), actions))
+                .add(new RecordingWeapon("b", new SoulEatingEnchantment(), actions))
+                .add(new RecordingWeapon("c", new RefCountedEnchantment(new FlyingEnchantment()), actions))
+                .add(new RecordingWeapon("d", new RefCountedEnchantment(new RefCountedEnchantment(new SoulEatingEnchantment())), actions));
+
+        assertEquals(4, batch.size());
+        assertEquals(2, batch.groupCount());
+
+        batch.swingAll();
+
+        // 同一组的武器按加入的顺序挥舞，组的顺序是第一次加入的顺序
+        assertEquals(Arrays.asList("a", "c", "b", "d"), actions);
+    }
+
+    @Test
+    public void batchSwingMatchesSwingingEachWeapon() {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        List<Weapon> sequential = new ArrayList<>();
+        WeaponBatch batch = new WeaponBatch();
+        for (int i = 0; i < 20; i++) {
+            String group = i % 3 == 0 ? "x" : "y";
+            String name = group + i;
+            sequential.add(new RecordingWeapon(name, new RecordingEnchantment(group, expected), expected));
+            batch.add(new RecordingWeapon(name, new RecordingEnchantment(group, actual), actual));
+        }
+        // RecordingEnchantment没有覆盖swingAll()，只按类型分组，仍然通过Weapon.swing()挥舞
+        assertEquals(1, batch.groupCount());
+
+        for (Weapon weapon : sequential) {
+            weapon.swing();
+        }
+        batch.swingAll();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void parallelSwingKeepsOrderWithinGroup() {
+        List<String> flying = Collections.synchronizedList(new ArrayList<>());
+        WeaponBatch batch = new WeaponBatch();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String name = "w" + i;
+            if (i % 2 == 0) {
+                expected.add(name);
+                batch.add(new RecordingWeapon(name, new FlyingEnchantment(), flying));
+            } else {
+                batch.add(new RecordingWeapon(name, new SoulEatingEnchantment(), new ArrayList<>()));
+            }
+        }
+
+        batch.swingAllParallel();
+
+        assertEquals(expected, flying);
+    }
+
+    @Test
+    public void storeViewsCanBeBatched() {
+        WeaponStore store = new WeaponStore();
+        RefCountedEnchantment enchantment = new RefCountedEnchantment(new FlyingEnchantment());
+        int id = store.registerEnchantment(enchantment);
+        store.add(WeaponKind.SWORD, id);
+        store.add(WeaponKind.HAMMER, id);
+        WeaponBatch batch = new WeaponBatch().add(store.get(0)).add(store.get(1));
+
+        batch.wieldAll();
+        batch.swingAll();
+        assertEquals(2, enchantment.getActiveCount());
+        batch.unWieldAll();
+
+        assertEquals(0, enchantment.getActiveCount());
+        assertEquals(1, batch.groupCount());
+    }
+
+    /**
+     * 挥舞时只记录武器的名字
+     */
+    private static final class RecordingWeapon implements Weapon {
+        private final String name;
+        private final Enchantment enchantment;
+        private final List<String> actions;
+
+        RecordingWeapon(String name, Enchantment enchantment, List<String> actions) {
+            this.name = name;
+            this.enchantment = enchantment;
+            this.actions = actions;
+        }
+
+        @Override
+        public void wield() {
+            enchantment.onActivate();
+        }
+
+        @Override
+        public void brandish() {
+            actions.add(name);
+        }
+
+        @Override
+        public void unWield() {
+            enchantment.onDeactivate();
+        }
+
+        @Override
+        public Enchantment getEnchantment() {
+            return enchantment;
+        }
+    }
+
+    private static final class RecordingEnchantment implements Enchantment {
+        private final String name;
+        private final List<String> actions;
+
+        RecordingEnchantment(String name, List<String> actions) {
+            this.name = name;
+            this.actions = actions;
+        }
+
+        @Override
+        public void onActivate() {
+        }
+
+        @Override
+        public void apply() {
+            actions.add("apply " + name);
+        }
+
+        @Override
+        public void onDeactivate() {
+        }
+    }
+}
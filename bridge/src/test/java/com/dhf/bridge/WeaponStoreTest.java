@@ -0,0 +1,93 @@
+package com.dhf.bridge;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WeaponStoreTest {
+
+    @Test
+    public void everyKindAndEnchantmentRoundTrips() {
+        WeaponStore store = new WeaponStore(1);
+        List<Enchantment> enchantments = new ArrayList<>();
+        for (int i = 0; i < WeaponStore.MAX_ENCHANTMENTS; i++) {
+            Enchantment enchantment = new FlyingEnchantment();
+            enchantments.add(enchantment);
+            assertEquals(i, store.registerEnchantment(enchantment));
+        }
+        for (int id = 0; id < WeaponStore.MAX_ENCHANTMENTS; id++) {
+            for (WeaponKind kind : WeaponKind.values()) {
+                store.add(kind, id);
+            }
+        }
+
+        int index = 0;
+        for (int id = 0; id < WeaponStore.MAX_ENCHANTMENTS; id++) {
+            for (WeaponKind kind : WeaponKind.values()) {
+                assertEquals(kind, store.getKind(index));
+                assertSame(enchantments.get(id), store.getEnchantment(index));
+                assertSame(enchantments.get(id), store.get(index).getEnchantment());
+                assertFalse(store.isWielded(index));
+                index++;
+            }
+        }
+        assertEquals(index, store.size());
+    }
+
+    @Test
+    public void wieldingDoesNotChangeKindOrEnchantment() {
+        WeaponStore store = new WeaponStore();
+        RefCountedEnchantment first = new RefCountedEnchantment(new FlyingEnchantment());
+        RefCountedEnchantment last = new RefCountedEnchantment(new SoulEatingEnchantment());
+        store.registerEnchantment(first);
+        for (int i = 1; i < WeaponStore.MAX_ENCHANTMENTS - 1; i++) {
+            store.registerEnchantment(new FlyingEnchantment());
+        }
+        int lastId = store.registerEnchantment(last);
+        WeaponKind lastKind = WeaponKind.values()[WeaponKind.values().length - 1];
+        store.add(WeaponKind.SWORD, 0);
+        store.add(lastKind, lastId);
+
+        store.wieldAll();
+
+        assertTrue(store.isWielded(0));
+        assertTrue(store.isWielded(1));
+        assertEquals(WeaponKind.SWORD, store.getKind(0));
+        assertEquals(lastKind, store.getKind(1));
+        assertSame(first, store.getEnchantment(0));
+        assertSame(last, store.getEnchantment(1));
+        assertEquals(1, first.getActiveCount());
+        assertEquals(1, last.getActiveCount());
+
+        store.unWieldAll();
+        assertFalse(store.isWielded(1));
+        assertEquals(lastKind, store.getKind(1));
+        assertEquals(0, last.getActiveCount());
+    }
+
+    @Test
+    public void tooManyEnchantmentsAreRejected() {
+        WeaponStore store = new WeaponStore();
+        for (int i = 0; i < WeaponStore.MAX_ENCHANTMENTS; i++) {
+            store.registerEnchantment(new FlyingEnchantment());
+        }
+        try {
+            store.registerEnchantment(new FlyingEnchantment());
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("at most " + WeaponStore.MAX_ENCHANTMENTS + " enchantments are supported", expected.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownEnchantmentIsRejected() {
+        new WeaponStore().add(WeaponKind.HAMMER, 0);
+    }
+}
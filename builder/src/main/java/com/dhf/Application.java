@@ -2,14 +2,26 @@ package com.dhf;
 
 import com.dhf.builder.Nationality;
 import com.dhf.builder.Person;
+import com.dhf.builder.PersonCsvLoader;
+import com.dhf.builder.PersonFile;
+import com.dhf.builder.PersonInterner;
+import com.dhf.builder.PersonTable;
 import com.dhf.builder.SkinColor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class Application {
     private static final Logger LOGGER = LoggerFactory.getLogger(Application.class);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Person personWang = new Person.Builder()
                 .name("小王")
                 .age(25)
@@ -34,5 +46,67 @@ public class Application {
         LOGGER.info(personWang.toString());
         LOGGER.info(personZhang.toString());
         LOGGER.info(personLiu.toString());
+
+        ByteBuffer report = ByteBuffer.allocate(1024);
+        personWang.writeTo(report);
+        report.put((byte) '\n');
+        personZhang.writeTo(report);
+        report.flip();
+        LOGGER.info("写入缓冲区的报告：\n" + StandardCharsets.UTF_8.decode(report));
+
+        PersonInterner interner = new PersonInterner();
+        for (int i = 0; i < 1000; i++) {
+            Person.Builder.forCurrentThread()
+                    .interner(interner)
+                    .name("小李")
+                    .age(30)
+                    .nationality(Nationality.CHINA)
+                    .skinColor(SkinColor.YELLOW)
+                    .build();
+        }
+        LOGGER.info("复用创建者创建了1000个相同的人，只保留了" + interner.size() + "个对象");
+
+        PersonTable table = new PersonTable();
+        Nationality[] nationalities = Nationality.values();
+        for (int i = 0; i < 1000; i++) {
+            Person.Builder.forCurrentThread()
+                    .name("路人" + (i % 10))
+                    .age(20 + i % 50)
+                    .nationality(nationalities[i % nationalities.length])
+                    .skinColor(SkinColor.YELLOW)
+                    .appendTo(table);
+        }
+        LOGGER.info("按列保存了" + table.size() + "个人，各国籍的人数：" + table.countByNationality());
+
+        Path file = Files.createTempFile("persons", ".bin");
+        try {
+            try (PersonFile.Writer writer = PersonFile.create(file)) {
+                for (int i = 0; i < table.size(); i++) {
+                    writer.append(table.get(i));
+                }
+            }
+            try (PersonFile.Reader reader = PersonFile.open(file)) {
+                LOGGER.info("从文件中读取了" + reader.size() + "个人，第500个是：" + reader.get(500));
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        Path csv = Files.createTempFile("persons", ".csv");
+        try {
+            List<String> lines = new ArrayList<>();
+            lines.add("name,age,nationality,skinColor");
+            for (int i = 0; i < 1000; i++) {
+                lines.add("路人" + i + "," + (20 + i % 50) + "," + nationalities[i % nationalities.length].name() + ",YELLOW");
+            }
+            Files.write(csv, lines, StandardCharsets.UTF_8);
+            try (PersonCsvLoader loader = new PersonCsvLoader(4, 4096, true)) {
+                List<Person> persons = new ArrayList<>();
+                long count = loader.load(csv, true, persons::add);
+                LOGGER.info("从CSV中并行加载了" + count + "个人，最后一个是：" + persons.get(persons.size() - 1));
+            }
+        } finally {
+            Files.delete(csv);
+        }
     }
 }
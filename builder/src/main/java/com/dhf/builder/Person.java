@@ -1,11 +1,21 @@
 package com.dhf.builder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
 /**
  * 人
  */
 public final class Person {
+    /**
+     * 没有设置年龄时age的值，不能作为年龄设置
+     */
+    public static final int UNSET_AGE = Integer.MIN_VALUE;
+
     private final String name;
-    private final Integer age;
+    private final int age;
     private final Nationality nationality;
     private final SkinColor skinColor;
 
@@ -21,9 +31,20 @@ public final class Person {
     }
 
     public Integer getAge() {
+        return hasAge() ? age : null;
+    }
+
+    /**
+     * 不装箱地获取年龄，没有设置年龄时返回{@link #UNSET_AGE}
+     */
+    public int getAgeAsInt() {
         return age;
     }
 
+    public boolean hasAge() {
+        return age != UNSET_AGE;
+    }
+
     public Nationality getNationality() {
         return nationality;
     }
@@ -33,33 +54,100 @@ public final class Person {
     }
 
     @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(name);
-        if (null != nationality) {
-            sb.append(" 是来自 ").append(nationality.toString()).append(" 的");
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
         }
-        if (null != age) {
-            sb.append(" ").append(age).append("岁的");
+        if (!(o instanceof Person)) {
+            return false;
         }
-        if (null != skinColor) {
-            sb.append(" 有着").append(skinColor).append("皮肤的");
+        Person person = (Person) o;
+        return person.matches(name, age, nationality, skinColor);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash(name, age, nationality, skinColor);
+    }
+
+    /**
+     * 和{@link #hashCode()}相同，不需要Person对象就能计算，不装箱也不创建可变参数数组
+     */
+    static int hash(String name, int age, Nationality nationality, SkinColor skinColor) {
+        int result = null == name ? 0 : name.hashCode();
+        result = 31 * result + age;
+        result = 31 * result + (null == nationality ? 0 : nationality.hashCode());
+        return 31 * result + (null == skinColor ? 0 : skinColor.hashCode());
+    }
+
+    /**
+     * 字段是否和给定的值相同
+     */
+    boolean matches(String name, int age, Nationality nationality, SkinColor skinColor) {
+        return this.age == age
+                && Objects.equals(this.name, name)
+                && this.nationality == nationality
+                && this.skinColor == skinColor;
+    }
+
+    /**
+     * 把描述追加到out中，不创建中间字符串
+     */
+    public <A extends Appendable> A appendTo(A out) throws IOException {
+        PersonWriter.appendTo(this, out);
+        return out;
+    }
+
+    /**
+     * 把描述按UTF-8编码写入buffer，空间不足时抛出BufferOverflowException
+     */
+    public void writeTo(ByteBuffer buffer) {
+        PersonWriter.writeTo(this, buffer);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return appendTo(new StringBuilder()).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        sb.append("一个人");
-        return sb.toString();
     }
 
     /**
-     * 创建者
+     * 创建者，可以通过{@link #reset()}重复使用，{@link #forCurrentThread()}返回当前线程复用的创建者
      */
     public static class Builder {
+        private static final ThreadLocal<Builder> THREAD_BUILDER = ThreadLocal.withInitial(Builder::new);
 
         private String name;
-        private Integer age;
+        private int age = UNSET_AGE;
         private Nationality nationality;
         private SkinColor skinColor;
+        private PersonInterner interner;
+
+        /**
+         * 返回当前线程复用的创建者，返回前会清空所有字段和interner设置，不能在创建Person的过程中再次调用
+         */
+        public static Builder forCurrentThread() {
+            return THREAD_BUILDER.get().reset().interner(null);
+        }
 
         public Builder age(Integer age) {
+            if (null == age) {
+                this.age = UNSET_AGE;
+                return this;
+            }
+            return age(age.intValue());
+        }
+
+        /**
+         * @throws IllegalArgumentException age是{@link #UNSET_AGE}时
+         */
+        public Builder age(int age) {
+            if (UNSET_AGE == age) {
+                throw new IllegalArgumentException("invalid age: " + age);
+            }
             this.age = age;
             return this;
         }
@@ -82,8 +170,38 @@ public final class Person {
             return this;
         }
 
+        /**
+         * 设置之后build()返回interner中相同字段的唯一Person对象，interner中已经有相同字段的Person时不会创建新对象，传null关闭
+         */
+        public Builder interner(PersonInterner interner) {
+            this.interner = interner;
+            return this;
+        }
+
+        /**
+         * 清空已经设置的字段，interner设置保持不变
+         */
+        public Builder reset() {
+            this.name = null;
+            this.age = UNSET_AGE;
+            this.nationality = null;
+            this.skinColor = null;
+            return this;
+        }
+
+        /**
+         * 不创建Person对象，直接把字段按列追加到table中，返回行号
+         */
+        public int appendTo(PersonTable table) {
+            return table.append(name, age, nationality, skinColor);
+        }
+
         public Person build() {
-            return new Person(this);
+            if (null == interner) {
+                return new Person(this);
+            }
+            Person canonical = interner.find(name, age, nationality, skinColor);
+            return null == canonical ? interner.intern(new Person(this)) : canonical;
         }
     }
 }
@@ -0,0 +1,118 @@
+package com.dhf.builder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Person的二进制编码，格式依次为：
+ * <ul>
+ * <li>国籍序号+1，1个字节，0表示没有国籍</li>
+ * <li>肤色序号+1，1个字节，0表示没有肤色</li>
+ * <li>年龄，varint，0表示没有年龄，否则是zigzag编码后的年龄+1</li>
+ * <li>名字的UTF-8字节数+1，varint，0表示没有名字</li>
+ * <li>名字的UTF-8字节</li>
+ * </ul>
+ * 编码和解码都直接读写ByteBuffer的当前位置
+ */
+public final class PersonCodec {
+    private static final Nationality[] NATIONALITIES = Nationality.values();
+    private static final SkinColor[] SKIN_COLORS = SkinColor.values();
+
+    private PersonCodec() {
+    }
+
+    /**
+     * 编码后的字节数
+     */
+    public static int encodedLength(Person person) {
+        String name = person.getName();
+        int nameLength = null == name ? 0 : PersonWriter.utf8Length(name);
+        return 2 + varintLength(encodeAge(person)) + varintLength(null == name ? 0 : nameLength + 1L) + nameLength;
+    }
+
+    /**
+     * 把person写入buffer，空间不足时抛出BufferOverflowException
+     */
+    public static void encode(Person person, ByteBuffer buffer) {
+        Nationality nationality = person.getNationality();
+        SkinColor skinColor = person.getSkinColor();
+        buffer.put((byte) (null == nationality ? 0 : nationality.ordinal() + 1));
+        buffer.put((byte) (null == skinColor ? 0 : skinColor.ordinal() + 1));
+        writeVarint(encodeAge(person), buffer);
+        String name = person.getName();
+        if (null == name) {
+            writeVarint(0, buffer);
+        } else {
+            writeVarint(PersonWriter.utf8Length(name) + 1L, buffer);
+            PersonWriter.writeUtf8(name, buffer);
+        }
+    }
+
+    /**
+     * 从buffer的当前位置读取一个Person
+     */
+    public static Person decode(ByteBuffer buffer) {
+        int nationality = buffer.get() & 0xFF;
+        int skinColor = buffer.get() & 0xFF;
+        long age = readVarint(buffer);
+        long nameLength = readVarint(buffer);
+        Person.Builder builder = new Person.Builder()
+                .nationality(nationality == 0 ? null : NATIONALITIES[nationality - 1])
+                .skinColor(skinColor == 0 ? null : SKIN_COLORS[skinColor - 1]);
+        if (age != 0) {
+            long zigzag = age - 1;
+            builder.age((int) (zigzag >>> 1 ^ -(zigzag & 1)));
+        }
+        if (nameLength != 0) {
+            builder.name(readUtf8(buffer, (int) (nameLength - 1)));
+        }
+        return builder.build();
+    }
+
+    private static long encodeAge(Person person) {
+        if (!person.hasAge()) {
+            return 0;
+        }
+        int age = person.getAgeAsInt();
+        return ((long) (age << 1 ^ age >> 31) & 0xFFFFFFFFL) + 1;
+    }
+
+    private static String readUtf8(ByteBuffer buffer, int length) {
+        if (buffer.hasArray()) {
+            int offset = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + length);
+            return new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeVarint(long value, ByteBuffer buffer) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+}
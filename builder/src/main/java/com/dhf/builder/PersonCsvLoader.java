@@ -0,0 +1,297 @@
+package com.dhf.builder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 并行加载CSV文件中的Person，每行格式为：名字,年龄,国籍,肤色，国籍和肤色是枚举的名字，年龄、国籍和肤色可以为空。
+ * 文件按行边界切分成多个块，每个块映射到内存后在线程池中通过{@link Person.Builder}解析，
+ * 结果可以按文件中的顺序输出，也可以按块解析完成的顺序输出。同时解析的块数不超过线程数的两倍，内存占用有上限
+ */
+public class PersonCsvLoader implements Closeable {
+    private static final Nationality[] NATIONALITIES = Nationality.values();
+    private static final SkinColor[] SKIN_COLORS = SkinColor.values();
+    private static final byte[][] NATIONALITY_NAMES = enumNames(NATIONALITIES);
+    private static final byte[][] SKIN_COLOR_NAMES = enumNames(SKIN_COLORS);
+
+    private final ExecutorService executor;
+    private final int threads;
+    private final int chunkSize;
+    private final boolean hasHeader;
+
+    /**
+     * @param threads   解析线程数
+     * @param chunkSize 每个块的大致字节数，实际会延长到行尾
+     * @param hasHeader 第一行是否为表头
+     */
+    public PersonCsvLoader(int threads, int chunkSize, boolean hasHeader) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("threads and chunkSize must be positive");
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "person-csv-loader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.hasHeader = hasHeader;
+    }
+
+    private static byte[][] enumNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = value.name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    /**
+     * 加载文件，在调用线程中把每个Person交给consumer
+     *
+     * @param ordered 为true时按文件中的顺序输出，否则按块解析完成的顺序输出
+     * @return 加载的Person数
+     */
+    public long load(Path file, boolean ordered, Consumer<? super Person> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = split(channel);
+            int maxInFlight = threads * 2;
+            long count = 0;
+            if (ordered) {
+                Deque<Future<List<Person>>> pending = new ArrayDeque<>();
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    if (pending.size() == maxInFlight) {
+                        count += emit(pending.poll(), consumer);
+                    }
+                    pending.add(executor.submit(parseTask(channel, boundaries[i], boundaries[i + 1])));
+                }
+                while (!pending.isEmpty()) {
+                    count += emit(pending.poll(), consumer);
+                }
+            } else {
+                CompletionService<List<Person>> completion = new ExecutorCompletionService<>(executor);
+                int inFlight = 0;
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    if (inFlight == maxInFlight) {
+                        count += emit(take(completion), consumer);
+                        inFlight--;
+                    }
+                    completion.submit(parseTask(channel, boundaries[i], boundaries[i + 1]));
+                    inFlight++;
+                }
+                for (; inFlight > 0; inFlight--) {
+                    count += emit(take(completion), consumer);
+                }
+            }
+            return count;
+        }
+    }
+
+    private static Future<List<Person>> take(CompletionService<List<Person>> completion) throws IOException {
+        try {
+            return completion.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading persons", e);
+        }
+    }
+
+    private static long emit(Future<List<Person>> future, Consumer<? super Person> consumer) throws IOException {
+        List<Person> persons;
+        try {
+            persons = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading persons", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+        persons.forEach(consumer);
+        return persons.size();
+    }
+
+    /**
+     * 按chunkSize切分文件，每个切分点向后移动到下一个换行符之后，保证每个块都由完整的行组成
+     */
+    private long[] split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        long start = hasHeader ? lineEnd(channel, 0, size) : 0;
+        boundaries.add(start);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            if (end < size) {
+                end = lineEnd(channel, end, size, buffer);
+            }
+            boundaries.add(end);
+            start = end;
+        }
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        return lineEnd(channel, from, size, ByteBuffer.allocate(4096));
+    }
+
+    /**
+     * 从from开始查找换行符，返回换行符之后的位置，找不到时返回文件大小
+     */
+    private static long lineEnd(FileChannel channel, long from, long size, ByteBuffer buffer) throws IOException {
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static Callable<List<Person>> parseTask(FileChannel channel, long start, long end) {
+        return () -> {
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("line too long near offset " + start);
+            }
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            return parse(chunk, start);
+        };
+    }
+
+    private static List<Person> parse(ByteBuffer chunk, long offset) {
+        List<Person> persons = new ArrayList<>();
+        byte[] line = new byte[256];
+        // 逗号的位置，整个块的所有行共用
+        int[] commas = new int[3];
+        int length = 0;
+        long lineStart = offset;
+        while (chunk.hasRemaining()) {
+            byte b = chunk.get();
+            if (b == '\n') {
+                parseLine(line, length, lineStart, commas, persons);
+                lineStart = offset + chunk.position();
+                length = 0;
+                continue;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length << 1);
+            }
+            line[length++] = b;
+        }
+        parseLine(line, length, lineStart, commas, persons);
+        return persons;
+    }
+
+    private static void parseLine(byte[] line, int length, long lineStart, int[] commas, List<Person> persons) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+        int found = 0;
+        for (int i = 0; i < length && found < 3; i++) {
+            if (line[i] == ',') {
+                commas[found++] = i;
+            }
+        }
+        if (found != 3) {
+            throw new IllegalArgumentException("expected 4 columns at offset " + lineStart);
+        }
+        try {
+            Person.Builder builder = Person.Builder.forCurrentThread()
+                    .name(commas[0] == 0 ? null : new String(line, 0, commas[0], StandardCharsets.UTF_8));
+            if (commas[1] > commas[0] + 1) {
+                builder.age(parseInt(line, commas[0] + 1, commas[1]));
+            }
+            builder.nationality(parseEnum(line, commas[1] + 1, commas[2], NATIONALITIES, NATIONALITY_NAMES))
+                    .skinColor(parseEnum(line, commas[2] + 1, length, SKIN_COLORS, SKIN_COLOR_NAMES));
+            persons.add(builder.build());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid person at offset " + lineStart + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int parseInt(byte[] line, int from, int to) {
+        boolean negative = line[from] == '-';
+        long value = 0;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9 || (value = value * 10 + digit) > Integer.MAX_VALUE + 1L) {
+                throw new IllegalArgumentException("invalid age");
+            }
+        }
+        if (to - from == (negative ? 1 : 0) || (!negative && value > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("invalid age");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(byte[] line, int from, int to, E[] values, byte[][] names) {
+        if (from == to) {
+            return null;
+        }
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = names[i];
+            if (name.length == to - from && regionMatches(line, from, name)) {
+                return values[i];
+            }
+        }
+        throw new IllegalArgumentException("unknown " + values[0].getDeclaringClass().getSimpleName() + ": "
+                + new String(line, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    private static boolean regionMatches(byte[] line, int from, byte[] name) {
+        for (int i = 0; i < name.length; i++) {
+            if (line[from + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
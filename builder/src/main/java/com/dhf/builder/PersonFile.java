@@ -0,0 +1,167 @@
+package com.dhf.builder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 保存大量Person的文件，文件格式为：文件头、用{@link PersonCodec}编码的Person、每个Person在文件中偏移量组成的索引。
+ * 通过{@link Writer}顺序写入，通过{@link Reader}把文件映射到内存后按下标随机读取。
+ * 读取时整个文件映射为一个MappedByteBuffer，所以文件不能超过2GB。打开时检查文件头中的数量和索引偏移量是否和文件大小一致
+ */
+public final class PersonFile {
+    private static final int MAGIC = 0x5052534E;
+    private static final int VERSION = 1;
+    /**
+     * magic、version、count、索引的偏移量
+     */
+    private static final int HEADER_LENGTH = 4 + 4 + 4 + 8;
+
+    private PersonFile() {
+    }
+
+    public static Writer create(Path path) throws IOException {
+        return new Writer(path);
+    }
+
+    public static Reader open(Path path) throws IOException {
+        return new Reader(path);
+    }
+
+    /**
+     * 顺序写入Person，close时写入索引和文件头
+     */
+    public static class Writer implements Closeable {
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long[] offsets = new long[1024];
+        private int count;
+        private long position = HEADER_LENGTH;
+
+        private Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_LENGTH);
+        }
+
+        public void append(Person person) throws IOException {
+            int length = PersonCodec.encodedLength(person);
+            if (buffer.remaining() < length) {
+                flushBuffer();
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count << 1);
+            }
+            offsets[count++] = position;
+            position += length;
+            if (length > buffer.capacity()) {
+                ByteBuffer large = ByteBuffer.allocate(length);
+                PersonCodec.encode(person, large);
+                large.flip();
+                writeFully(large);
+            } else {
+                PersonCodec.encode(person, buffer);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                long indexOffset = position;
+                for (int i = 0; i < count; i++) {
+                    if (buffer.remaining() < 8) {
+                        flushBuffer();
+                    }
+                    buffer.putLong(offsets[i]);
+                }
+                flushBuffer();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.putInt(MAGIC).putInt(VERSION).putInt(count).putLong(indexOffset).flip();
+                channel.position(0);
+                writeFully(header);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * 把整个文件映射到内存，按下标读取Person，可以被多个线程同时使用
+     */
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int count;
+        private final int indexOffset;
+
+        private Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("person file larger than 2GB: " + path);
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (size < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+                    throw new IOException("not a person file: " + path);
+                }
+                if (buffer.getInt(4) != VERSION) {
+                    throw new IOException("unsupported person file version " + buffer.getInt(4) + ": " + path);
+                }
+                int count = buffer.getInt(8);
+                long indexOffset = buffer.getLong(12);
+                // 索引紧跟在所有Person之后，一直到文件末尾
+                if (count < 0 || indexOffset < HEADER_LENGTH || indexOffset + 8L * count != size) {
+                    throw new IOException("corrupt person file, count " + count + " and index offset " + indexOffset
+                            + " do not match file size " + size + ": " + path);
+                }
+                this.count = count;
+                this.indexOffset = (int) indexOffset;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public Person get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+            }
+            long offset = buffer.getLong(indexOffset + index * 8);
+            if (offset < HEADER_LENGTH || offset >= indexOffset) {
+                throw new IllegalStateException("corrupt person file, record " + index + " at offset " + offset);
+            }
+            ByteBuffer record = buffer.duplicate();
+            record.position((int) offset);
+            return PersonCodec.decode(record);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
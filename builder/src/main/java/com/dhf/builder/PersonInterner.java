@@ -0,0 +1,88 @@
+package com.dhf.builder;
+
+/**
+ * 保存字段相同的Person的唯一对象，大量重复的Person只保留一份，
+ * 被保存的Person不会被回收，只适合字段组合有限的场景。
+ * <p>
+ * 内部是链表法的哈希表，链表节点不可变，查找不加锁，可以直接用字段查找而不需要先创建Person；
+ * 没有找到时加锁后再查找一次并插入
+ */
+public class PersonInterner {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile Node[] table = new Node[INITIAL_CAPACITY];
+    private volatile int size;
+
+    public Person intern(Person person) {
+        int hash = person.hashCode();
+        Person canonical = find(table, hash, person.getName(), person.getAgeAsInt(), person.getNationality(),
+                person.getSkinColor());
+        return null == canonical ? insert(hash, person) : canonical;
+    }
+
+    /**
+     * 查找字段相同的Person，没有时返回null
+     */
+    Person find(String name, int age, Nationality nationality, SkinColor skinColor) {
+        return find(table, Person.hash(name, age, nationality, skinColor), name, age, nationality, skinColor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static Person find(Node[] table, int hash, String name, int age, Nationality nationality,
+                               SkinColor skinColor) {
+        for (Node node = table[index(hash, table.length)]; node != null; node = node.next) {
+            if (node.hash == hash && node.person.matches(name, age, nationality, skinColor)) {
+                return node.person;
+            }
+        }
+        return null;
+    }
+
+    private synchronized Person insert(int hash, Person person) {
+        Node[] current = table;
+        Person canonical = find(current, hash, person.getName(), person.getAgeAsInt(), person.getNationality(),
+                person.getSkinColor());
+        if (canonical != null) {
+            return canonical;
+        }
+        if (size + 1 > current.length * 3 / 4) {
+            current = resize(current);
+        }
+        int index = index(hash, current.length);
+        current[index] = new Node(hash, person, current[index]);
+        // 写volatile的size让之后读取size的线程也能看到新的节点
+        size = size + 1;
+        table = current;
+        return person;
+    }
+
+    private static Node[] resize(Node[] old) {
+        Node[] resized = new Node[old.length << 1];
+        for (Node head : old) {
+            for (Node node = head; node != null; node = node.next) {
+                int index = index(node.hash, resized.length);
+                resized[index] = new Node(node.hash, node.person, resized[index]);
+            }
+        }
+        return resized;
+    }
+
+    private static int index(int hash, int length) {
+        return (hash ^ hash >>> 16) & (length - 1);
+    }
+
+    private static final class Node {
+        final int hash;
+        final Person person;
+        final Node next;
+
+        Node(int hash, Person person, Node next) {
+            this.hash = hash;
+            this.person = person;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.dhf.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列保存大量Person，名字保存为字典编号，年龄保存为int，国籍和肤色保存为枚举的序号（没有设置时为-1），
+ * 每行只占几个基本类型的数组元素。通过{@link Person.Builder#appendTo(PersonTable)}追加，
+ * 通过{@link #cursor()}不创建Person地读取，统计方法直接扫描对应的列。该类不是线程安全的
+ */
+public class PersonTable {
+    private static final byte NONE = -1;
+    private static final Nationality[] NATIONALITIES = Nationality.values();
+    private static final SkinColor[] SKIN_COLORS = SkinColor.values();
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private int[] nameColumn;
+    private int[] ageColumn;
+    private byte[] nationalityColumn;
+    private byte[] skinColorColumn;
+    private int size;
+
+    public PersonTable() {
+        this(16);
+    }
+
+    public PersonTable(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.nameColumn = new int[capacity];
+        this.ageColumn = new int[capacity];
+        this.nationalityColumn = new byte[capacity];
+        this.skinColorColumn = new byte[capacity];
+    }
+
+    /**
+     * 追加一行，返回行号
+     */
+    int append(String name, int age, Nationality nationality, SkinColor skinColor) {
+        if (null == name) {
+            throw new IllegalArgumentException("人必须有名字!");
+        }
+        if (size == nameColumn.length) {
+            int capacity = size << 1;
+            nameColumn = Arrays.copyOf(nameColumn, capacity);
+            ageColumn = Arrays.copyOf(ageColumn, capacity);
+            nationalityColumn = Arrays.copyOf(nationalityColumn, capacity);
+            skinColorColumn = Arrays.copyOf(skinColorColumn, capacity);
+        }
+        nameColumn[size] = nameId(name);
+        ageColumn[size] = age;
+        nationalityColumn[size] = null == nationality ? NONE : (byte) nationality.ordinal();
+        skinColorColumn[size] = null == skinColor ? NONE : (byte) skinColor.ordinal();
+        return size++;
+    }
+
+    private int nameId(String name) {
+        Integer id = nameIds.get(name);
+        if (null == id) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 不同名字的个数
+     */
+    public int distinctNameCount() {
+        return names.size();
+    }
+
+    public String getName(int row) {
+        checkRow(row);
+        return names.get(nameColumn[row]);
+    }
+
+    /**
+     * 没有设置年龄时返回{@link Person#UNSET_AGE}
+     */
+    public int getAge(int row) {
+        checkRow(row);
+        return ageColumn[row];
+    }
+
+    public Nationality getNationality(int row) {
+        checkRow(row);
+        byte ordinal = nationalityColumn[row];
+        return ordinal == NONE ? null : NATIONALITIES[ordinal];
+    }
+
+    public SkinColor getSkinColor(int row) {
+        checkRow(row);
+        byte ordinal = skinColorColumn[row];
+        return ordinal == NONE ? null : SKIN_COLORS[ordinal];
+    }
+
+    /**
+     * 创建第row行对应的Person对象
+     */
+    public Person get(int row) {
+        checkRow(row);
+        int age = getAge(row);
+        return new Person.Builder()
+                .name(getName(row))
+                .age(Person.UNSET_AGE == age ? null : age)
+                .nationality(getNationality(row))
+                .skinColor(getSkinColor(row))
+                .build();
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public int count(Nationality nationality) {
+        byte ordinal = (byte) nationality.ordinal();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (nationalityColumn[i] == ordinal) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按国籍统计人数，没有设置国籍的人不统计
+     */
+    public Map<Nationality, Integer> countByNationality() {
+        int[] counts = new int[NATIONALITIES.length];
+        for (int i = 0; i < size; i++) {
+            byte ordinal = nationalityColumn[i];
+            if (ordinal != NONE) {
+                counts[ordinal]++;
+            }
+        }
+        Map<Nationality, Integer> result = new EnumMap<>(Nationality.class);
+        for (Nationality nationality : NATIONALITIES) {
+            result.put(nationality, counts[nationality.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * 按肤色统计人数，没有设置肤色的人不统计
+     */
+    public Map<SkinColor, Integer> countBySkinColor() {
+        int[] counts = new int[SKIN_COLORS.length];
+        for (int i = 0; i < size; i++) {
+            byte ordinal = skinColorColumn[i];
+            if (ordinal != NONE) {
+                counts[ordinal]++;
+            }
+        }
+        Map<SkinColor, Integer> result = new EnumMap<>(SkinColor.class);
+        for (SkinColor skinColor : SKIN_COLORS) {
+            result.put(skinColor, counts[skinColor.ordinal()]);
+        }
+        return result;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+    }
+
+    /**
+     * 可移动的行视图，读取字段时直接访问列数组，同一个游标可以反复用于不同的行
+     */
+    public class Cursor {
+        private int row = -1;
+
+        public Cursor moveTo(int row) {
+            checkRow(row);
+            this.row = row;
+            return this;
+        }
+
+        /**
+         * 移动到下一行，没有下一行时返回false
+         */
+        public boolean next() {
+            if (row + 1 >= size) {
+                return false;
+            }
+            row++;
+            return true;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getName() {
+            return PersonTable.this.getName(row);
+        }
+
+        public int getAge() {
+            return PersonTable.this.getAge(row);
+        }
+
+        public Nationality getNationality() {
+            return PersonTable.this.getNationality(row);
+        }
+
+        public SkinColor getSkinColor() {
+            return PersonTable.this.getSkinColor(row);
+        }
+
+        public Person toPerson() {
+            return PersonTable.this.get(row);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.dhf.builder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 输出Person的描述，固定的短语和枚举的名称事先编码成UTF-8，输出时不创建中间字符串
+ */
+final class PersonWriter {
+    private static final String FROM = " 是来自 ";
+    private static final String OF = " 的";
+    private static final String SPACE = " ";
+    private static final String YEARS_OLD = "岁的";
+    private static final String WITH = " 有着";
+    private static final String SKIN = "皮肤的";
+    private static final String A_PERSON = "一个人";
+
+    private static final byte[] FROM_UTF8 = utf8(FROM);
+    private static final byte[] OF_UTF8 = utf8(OF);
+    private static final byte[] SPACE_UTF8 = utf8(SPACE);
+    private static final byte[] YEARS_OLD_UTF8 = utf8(YEARS_OLD);
+    private static final byte[] WITH_UTF8 = utf8(WITH);
+    private static final byte[] SKIN_UTF8 = utf8(SKIN);
+    private static final byte[] A_PERSON_UTF8 = utf8(A_PERSON);
+    private static final byte[][] NATIONALITY_UTF8 = new byte[Nationality.values().length][];
+    private static final byte[][] SKIN_COLOR_UTF8 = new byte[SkinColor.values().length][];
+
+    static {
+        for (Nationality nationality : Nationality.values()) {
+            NATIONALITY_UTF8[nationality.ordinal()] = utf8(nationality.toString());
+        }
+        for (SkinColor skinColor : SkinColor.values()) {
+            SKIN_COLOR_UTF8[skinColor.ordinal()] = utf8(skinColor.toString());
+        }
+    }
+
+    private PersonWriter() {
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void appendTo(Person person, Appendable out) throws IOException {
+        out.append(String.valueOf(person.getName()));
+        Nationality nationality = person.getNationality();
+        if (null != nationality) {
+            out.append(FROM).append(nationality.toString()).append(OF);
+        }
+        if (person.hasAge()) {
+            out.append(SPACE);
+            appendInt(person.getAgeAsInt(), out);
+            out.append(YEARS_OLD);
+        }
+        SkinColor skinColor = person.getSkinColor();
+        if (null != skinColor) {
+            out.append(WITH).append(skinColor.toString()).append(SKIN);
+        }
+        out.append(A_PERSON);
+    }
+
+    static void writeTo(Person person, ByteBuffer out) {
+        writeUtf8(String.valueOf(person.getName()), out);
+        Nationality nationality = person.getNationality();
+        if (null != nationality) {
+            out.put(FROM_UTF8).put(NATIONALITY_UTF8[nationality.ordinal()]).put(OF_UTF8);
+        }
+        if (person.hasAge()) {
+            out.put(SPACE_UTF8);
+            writeInt(person.getAgeAsInt(), out);
+            out.put(YEARS_OLD_UTF8);
+        }
+        SkinColor skinColor = person.getSkinColor();
+        if (null != skinColor) {
+            out.put(WITH_UTF8).put(SKIN_COLOR_UTF8[skinColor.ordinal()]).put(SKIN_UTF8);
+        }
+        out.put(A_PERSON_UTF8);
+    }
+
+    private static void appendInt(int value, Appendable out) throws IOException {
+        long v = value;
+        if (v < 0) {
+            out.append('-');
+            v = -v;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= v) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + v / divisor % 10));
+        }
+    }
+
+    private static void writeInt(int value, ByteBuffer out) {
+        long v = value;
+        if (v < 0) {
+            out.put((byte) '-');
+            v = -v;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= v) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.put((byte) ('0' + v / divisor % 10));
+        }
+    }
+
+    /**
+     * text编码成UTF-8后的字节数，和{@link #writeUtf8(String, ByteBuffer)}写入的字节数一致
+     */
+    static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 逐个字符编码成UTF-8写入，不合法的代理字符写成'?'
+     */
+    static void writeUtf8(String text, ByteBuffer out) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out.put((byte) (0xF0 | codePoint >> 18));
+                out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                out.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+}
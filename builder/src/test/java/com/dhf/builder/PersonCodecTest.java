@@ -0,0 +1,96 @@
+package com.dhf.builder;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PersonCodecTest {
+
+    @Test
+    public void decodeReturnsTheEncodedPerson() {
+        List<Person> persons = randomPersons(new Random(13), 5000);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(1 << 20), ByteBuffer.allocateDirect(1 << 20)}) {
+            int[] ends = new int[persons.size()];
+            for (int i = 0; i < persons.size(); i++) {
+                Person person = persons.get(i);
+                int start = buffer.position();
+                PersonCodec.encode(person, buffer);
+                assertEquals(person.toString(), PersonCodec.encodedLength(person), buffer.position() - start);
+                ends[i] = buffer.position();
+            }
+            buffer.flip();
+            for (int i = 0; i < persons.size(); i++) {
+                assertEquals(persons.get(i), PersonCodec.decode(buffer));
+                assertEquals(ends[i], buffer.position());
+            }
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void decodeFromSliceOfHeapBuffer() {
+        Person person = new Person.Builder().name("小王").age(-30).skinColor(SkinColor.WHITE).build();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(7);
+        ByteBuffer slice = buffer.slice();
+        PersonCodec.encode(person, slice);
+        slice.flip();
+
+        // 切片的arrayOffset不为0，读取名字时要加上
+        assertEquals(person, PersonCodec.decode(slice));
+    }
+
+    @Test
+    public void unsetFieldsAreEncodedAsZero() {
+        Person person = new Person.Builder().name("").build();
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        PersonCodec.encode(person, buffer);
+
+        assertEquals(4, buffer.position());
+        assertEquals(0, buffer.get(0));
+        assertEquals(0, buffer.get(1));
+        assertEquals(0, buffer.get(2));
+        assertEquals(1, buffer.get(3));
+        buffer.flip();
+        Person decoded = PersonCodec.decode(buffer);
+        assertEquals(person, decoded);
+        assertFalse(decoded.hasAge());
+    }
+
+    /**
+     * 随机的Person，覆盖多字节名字、超过一个varint字节的名字长度和各种年龄
+     */
+    static List<Person> randomPersons(Random random, int count) {
+        Nationality[] nationalities = Nationality.values();
+        SkinColor[] skinColors = SkinColor.values();
+        int[] ages = {0, 1, 63, 64, -64, -65, 200, Integer.MAX_VALUE, Person.UNSET_AGE + 1};
+        List<Person> persons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder(i % 3 == 0 ? "路人" : "passer").append(i);
+            if (i % 100 == 0) {
+                for (int j = 0; j < 50; j++) {
+                    name.append("很长的名字");
+                }
+            }
+            Person.Builder builder = new Person.Builder().name(name.toString());
+            int age = random.nextBoolean() ? ages[random.nextInt(ages.length)] : random.nextInt();
+            if (random.nextInt(4) != 0 && age != Person.UNSET_AGE) {
+                builder.age(age);
+            }
+            if (random.nextInt(4) != 0) {
+                builder.nationality(nationalities[random.nextInt(nationalities.length)]);
+            }
+            if (random.nextInt(4) != 0) {
+                builder.skinColor(skinColors[random.nextInt(skinColors.length)]);
+            }
+            persons.add(builder.build());
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,71 @@
+package com.dhf.builder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PersonCsvLoader}加载一个生成的大文件的吞吐量，结果是每秒加载的次数，乘以文件的行数就是每秒解析的行数。运行方式：
+ * <pre>
+ * mvn -pl builder -am test-compile
+ * mvn -pl builder exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main PersonCsvLoaderBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PersonCsvLoaderBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    @Param({"true", "false"})
+    private boolean ordered;
+
+    private Path file;
+    private PersonCsvLoader loader;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("persons", ".csv");
+        Files.write(file, PersonCsvLoaderTest.generate(rows, new Random(42), new ArrayList<>())
+                .getBytes(StandardCharsets.UTF_8));
+        loader = new PersonCsvLoader(threads, 1 << 20, true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        loader.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long load(Blackhole blackhole) throws IOException {
+        return loader.load(file, ordered, blackhole::consume);
+    }
+}
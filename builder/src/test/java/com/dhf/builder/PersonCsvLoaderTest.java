@@ -0,0 +1,180 @@
+package com.dhf.builder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PersonCsvLoaderTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("persons", ".csv");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test(timeout = 30000)
+    public void linesSplitAcrossChunkEdgesAreLoadedWhole() throws IOException {
+        List<Person> expected = new ArrayList<>();
+        write(generate(2000, new Random(42), expected));
+
+        // 块大小从小于一行到大于整个文件，切分点会落在多字节字符、逗号和换行符上
+        for (int chunkSize : new int[]{1, 7, 64, 1000, 1 << 20}) {
+            try (PersonCsvLoader loader = new PersonCsvLoader(3, chunkSize, true)) {
+                List<Person> loaded = new ArrayList<>();
+                assertEquals(expected.size(), loader.load(file, true, loaded::add));
+                assertEquals("chunkSize " + chunkSize, expected, loaded);
+            }
+        }
+    }
+
+    @Test
+    public void lastLineWithoutTrailingNewlineIsLoaded() throws IOException {
+        write("名字,年龄,国籍,肤色\r\n小王,30,CHINA,YELLOW\r\nAmy,,UK,WHITE");
+        try (PersonCsvLoader loader = new PersonCsvLoader(2, 8, true)) {
+            List<Person> loaded = new ArrayList<>();
+            loader.load(file, true, loaded::add);
+
+            assertEquals(2, loaded.size());
+            assertEquals(new Person.Builder().name("小王").age(30).nationality(Nationality.CHINA)
+                    .skinColor(SkinColor.YELLOW).build(), loaded.get(0));
+            assertEquals(new Person.Builder().name("Amy").nationality(Nationality.UK)
+                    .skinColor(SkinColor.WHITE).build(), loaded.get(1));
+        }
+    }
+
+    @Test
+    public void headerOnlyFileIsEmpty() throws IOException {
+        write("名字,年龄,国籍,肤色");
+        try (PersonCsvLoader loader = new PersonCsvLoader(2, 8, true)) {
+            assertEquals(0, loader.load(file, true, person -> fail(person.toString())));
+            assertEquals(0, loader.load(file, false, person -> fail(person.toString())));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void unorderedLoadReturnsTheSamePersons() throws IOException {
+        List<Person> expected = new ArrayList<>();
+        write(generate(5000, new Random(7), expected));
+        try (PersonCsvLoader loader = new PersonCsvLoader(4, 256, true)) {
+            List<Person> ordered = new ArrayList<>();
+            List<Person> unordered = new ArrayList<>();
+            loader.load(file, true, ordered::add);
+            loader.load(file, false, unordered::add);
+
+            assertEquals(expected, ordered);
+            Comparator<Person> byName = Comparator.comparing(Person::getName);
+            expected.sort(byName);
+            unordered.sort(byName);
+            assertEquals(expected, unordered);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void parseErrorIsThrownFromLoad() throws IOException {
+        List<Person> expected = new ArrayList<>();
+        String good = generate(1000, new Random(1), expected);
+        String bad = "坏人,30,MARS,YELLOW\n";
+        write(good + bad + good.substring(good.indexOf('\n') + 1));
+        long offset = good.getBytes(StandardCharsets.UTF_8).length;
+
+        for (boolean ordered : new boolean[]{true, false}) {
+            try (PersonCsvLoader loader = new PersonCsvLoader(3, 100, true)) {
+                loader.load(file, ordered, person -> {
+                });
+                fail("ordered " + ordered);
+            } catch (IllegalArgumentException expectedError) {
+                assertEquals("invalid person at offset " + offset + ": unknown Nationality: MARS",
+                        expectedError.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void missingColumnsAreRejected() throws IOException {
+        write("小王,30,CHINA\n");
+        try (PersonCsvLoader loader = new PersonCsvLoader(1, 1024, false)) {
+            loader.load(file, true, person -> {
+            });
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals("expected 4 columns at offset 0", expected.getMessage());
+        }
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void missingFileIsAnIOException() throws IOException {
+        Files.delete(file);
+        try (PersonCsvLoader loader = new PersonCsvLoader(1, 1024, false)) {
+            loader.load(file, true, person -> {
+            });
+        }
+    }
+
+    @Test
+    public void consumerRunsInCallingThread() throws IOException {
+        List<Person> expected = new ArrayList<>();
+        write(generate(200, new Random(3), expected));
+        Thread caller = Thread.currentThread();
+        try (PersonCsvLoader loader = new PersonCsvLoader(2, 64, true)) {
+            loader.load(file, false, person -> assertTrue(Thread.currentThread() == caller));
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 生成带表头的CSV，名字各不相同，年龄、国籍和肤色随机为空
+     */
+    static String generate(int rows, Random random, List<Person> persons) {
+        Nationality[] nationalities = Nationality.values();
+        SkinColor[] skinColors = SkinColor.values();
+        StringBuilder csv = new StringBuilder("名字,年龄,国籍,肤色").append('\n');
+        for (int i = 0; i < rows; i++) {
+            String name = (i % 2 == 0 ? "路人" : "passer") + i;
+            Person.Builder builder = new Person.Builder().name(name);
+            csv.append(name).append(',');
+            if (random.nextInt(5) != 0) {
+                int age = random.nextInt(100);
+                builder.age(age);
+                csv.append(age);
+            }
+            csv.append(',');
+            if (random.nextInt(5) != 0) {
+                Nationality nationality = nationalities[random.nextInt(nationalities.length)];
+                builder.nationality(nationality);
+                csv.append(nationality.name());
+            }
+            csv.append(',');
+            if (random.nextInt(5) != 0) {
+                SkinColor skinColor = skinColors[random.nextInt(skinColors.length)];
+                builder.skinColor(skinColor);
+                csv.append(skinColor.name());
+            }
+            csv.append('\n');
+            persons.add(builder.build());
+        }
+        return csv.toString();
+    }
+}
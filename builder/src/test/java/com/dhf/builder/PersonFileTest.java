@@ -0,0 +1,165 @@
+package com.dhf.builder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PersonFileTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("persons", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void readerReturnsWrittenPersons() throws IOException {
+        // 数量足够多，写入时会多次刷新64KB的缓冲区并扩大偏移量数组
+        List<Person> persons = PersonCodecTest.randomPersons(new Random(17), 20000);
+        write(persons);
+
+        try (PersonFile.Reader reader = PersonFile.open(file)) {
+            assertEquals(persons.size(), reader.size());
+            for (int i = persons.size() - 1; i >= 0; i--) {
+                assertEquals(persons.get(i), reader.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void recordLargerThanWriteBufferRoundTrips() throws IOException {
+        StringBuilder name = new StringBuilder();
+        while (name.length() < 40000) {
+            name.append("很长的名字");
+        }
+        Person large = new Person.Builder().name(name.toString()).age(1).build();
+        Person small = new Person.Builder().name("小王").build();
+        write(Arrays.asList(small, large, small));
+
+        try (PersonFile.Reader reader = PersonFile.open(file)) {
+            assertEquals(small, reader.get(0));
+            assertEquals(large, reader.get(1));
+            assertEquals(small, reader.get(2));
+        }
+    }
+
+    @Test
+    public void emptyFileHasNoPersons() throws IOException {
+        write(Collections.emptyList());
+
+        try (PersonFile.Reader reader = PersonFile.open(file)) {
+            assertEquals(0, reader.size());
+        }
+    }
+
+    @Test
+    public void countLargerThanIndexIsRejectedOnOpen() throws IOException {
+        write(PersonCodecTest.randomPersons(new Random(1), 10));
+        patchHeader(8, ByteBuffer.allocate(4).putInt(0, 11));
+
+        assertCorrupt("count 11 and index offset");
+    }
+
+    @Test
+    public void negativeCountIsRejectedOnOpen() throws IOException {
+        write(PersonCodecTest.randomPersons(new Random(1), 10));
+        patchHeader(8, ByteBuffer.allocate(4).putInt(0, -1));
+
+        assertCorrupt("count -1 and index offset");
+    }
+
+    @Test
+    public void indexOffsetOutsideFileIsRejectedOnOpen() throws IOException {
+        write(PersonCodecTest.randomPersons(new Random(1), 10));
+        patchHeader(12, ByteBuffer.allocate(8).putLong(0, Long.MAX_VALUE - 8));
+
+        assertCorrupt("index offset " + (Long.MAX_VALUE - 8));
+    }
+
+    @Test
+    public void truncatedFileIsRejectedOnOpen() throws IOException {
+        write(PersonCodecTest.randomPersons(new Random(1), 10));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+
+        assertCorrupt("do not match file size");
+    }
+
+    @Test
+    public void indexEntryOutsideRecordsFailsOnGet() throws IOException {
+        write(PersonCodecTest.randomPersons(new Random(1), 10));
+        long size = Files.size(file);
+        // 最后一个索引项指向索引本身
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, size - 8), size - 8);
+        }
+
+        try (PersonFile.Reader reader = PersonFile.open(file)) {
+            reader.get(8);
+            try {
+                reader.get(9);
+                fail();
+            } catch (IllegalStateException expected) {
+                assertEquals("corrupt person file, record 9 at offset " + (size - 8), expected.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void unclosedWriterLeavesAnUnreadableFile() throws IOException {
+        Files.write(file, new byte[64]);
+
+        try {
+            PersonFile.open(file).close();
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("not a person file"));
+        }
+    }
+
+    private void write(List<Person> persons) throws IOException {
+        try (PersonFile.Writer writer = PersonFile.create(file)) {
+            for (Person person : persons) {
+                writer.append(person);
+            }
+        }
+    }
+
+    private void patchHeader(long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private void assertCorrupt(String message) {
+        try {
+            PersonFile.open(file).close();
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("corrupt person file"));
+            assertTrue(expected.getMessage(), expected.getMessage().contains(message));
+        }
+    }
+}
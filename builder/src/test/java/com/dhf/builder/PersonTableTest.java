@@ -0,0 +1,101 @@
+package com.dhf.builder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PersonTableTest {
+
+    @Test
+    public void countsMatchTheAppendedPersons() {
+        Random random = new Random(5);
+        Nationality[] nationalities = Nationality.values();
+        SkinColor[] skinColors = SkinColor.values();
+        Map<Nationality, Integer> expectedNationalities = new EnumMap<>(Nationality.class);
+        Map<SkinColor, Integer> expectedSkinColors = new EnumMap<>(SkinColor.class);
+        for (Nationality nationality : nationalities) {
+            expectedNationalities.put(nationality, 0);
+        }
+        for (SkinColor skinColor : skinColors) {
+            expectedSkinColors.put(skinColor, 0);
+        }
+        // 初始容量为1，追加时会多次扩容
+        PersonTable table = new PersonTable(1);
+        for (int i = 0; i < 10000; i++) {
+            Person.Builder builder = Person.Builder.forCurrentThread().name("路人" + (i % 100));
+            // 没有国籍或肤色的人不参与对应的统计
+            if (random.nextInt(4) != 0) {
+                Nationality nationality = nationalities[random.nextInt(nationalities.length)];
+                builder.nationality(nationality);
+                expectedNationalities.merge(nationality, 1, Integer::sum);
+            }
+            if (random.nextInt(4) != 0) {
+                SkinColor skinColor = skinColors[random.nextInt(skinColors.length)];
+                builder.skinColor(skinColor);
+                expectedSkinColors.merge(skinColor, 1, Integer::sum);
+            }
+            assertEquals(i, builder.appendTo(table));
+        }
+
+        assertEquals(10000, table.size());
+        assertEquals(100, table.distinctNameCount());
+        assertEquals(expectedNationalities, table.countByNationality());
+        assertEquals(expectedSkinColors, table.countBySkinColor());
+        for (Nationality nationality : nationalities) {
+            assertEquals((int) expectedNationalities.get(nationality), table.count(nationality));
+        }
+    }
+
+    @Test
+    public void emptyTableCountsZeroForEveryNationality() {
+        Map<Nationality, Integer> counts = new PersonTable().countByNationality();
+
+        assertEquals(Nationality.values().length, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(0, count);
+        }
+    }
+
+    @Test
+    public void rowsReadBackAsTheBuiltPersons() {
+        List<Person> persons = new ArrayList<>();
+        persons.add(new Person.Builder().name("小王").age(30).nationality(Nationality.CHINA)
+                .skinColor(SkinColor.YELLOW).build());
+        persons.add(new Person.Builder().name("Amy").build());
+        persons.add(new Person.Builder().name("小王").age(0).skinColor(SkinColor.BLACK).build());
+        PersonTable table = new PersonTable();
+        for (Person person : persons) {
+            Person.Builder builder = Person.Builder.forCurrentThread()
+                    .name(person.getName())
+                    .age(person.getAge())
+                    .nationality(person.getNationality())
+                    .skinColor(person.getSkinColor());
+            builder.appendTo(table);
+        }
+
+        assertEquals(Person.UNSET_AGE, table.getAge(1));
+        assertEquals(null, table.getNationality(1));
+        PersonTable.Cursor cursor = table.cursor();
+        for (Person person : persons) {
+            assertTrue(cursor.next());
+            assertEquals(person, cursor.toPerson());
+            assertEquals(person.getName(), cursor.getName());
+            assertEquals(person.getAgeAsInt(), cursor.getAge());
+        }
+        assertFalse(cursor.next());
+        assertEquals(2, table.distinctNameCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rowOutOfRangeIsRejected() {
+        new PersonTable().getName(0);
+    }
+}
@@ -0,0 +1,154 @@
+package com.dhf.builder;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PersonTest {
+
+    private static final int RECORDS = 100000;
+
+    /**
+     * 测量的结果写到这里，避免JIT把没有用到的对象优化掉
+     */
+    private static volatile Object sink;
+    private static volatile int hashSink;
+
+    @Test
+    public void reusedInterningBuilderSavesPerRecordAllocations() {
+        PersonInterner interner = new PersonInterner();
+        Person first = build(interner);
+
+        long fresh = allocatedBytes(() -> {
+            for (int i = 0; i < RECORDS; i++) {
+                sink = new Person.Builder()
+                        .name("小王")
+                        .age(30)
+                        .nationality(Nationality.CHINA)
+                        .skinColor(SkinColor.YELLOW)
+                        .build();
+            }
+        });
+        long interned = allocatedBytes(() -> {
+            for (int i = 0; i < RECORDS; i++) {
+                sink = build(interner);
+            }
+        });
+
+        // 每条记录都新建Builder和Person时至少分配这两个对象
+        assertTrue("fresh builders allocated " + fresh + " bytes for " + RECORDS + " records", fresh >= RECORDS * 32L);
+        // 复用线程的Builder并且命中interner时，只有测量本身可能分配少量字节
+        assertTrue("interned builds allocated " + interned + " bytes for " + RECORDS + " records", interned < RECORDS);
+        assertSame(first, sink);
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void hashCodeAllocatesNothing() {
+        Person person = build(null);
+
+        long allocated = allocatedBytes(() -> {
+            int hash = 0;
+            for (int i = 0; i < RECORDS; i++) {
+                hash += person.hashCode();
+            }
+            hashSink = hash;
+        });
+
+        assertTrue("allocated " + allocated + " bytes in " + RECORDS + " calls", allocated < RECORDS);
+    }
+
+    @Test
+    public void equalPersonsHaveEqualHashCodes() {
+        Person person = build(null);
+        Person same = build(null);
+        Person older = new Person.Builder().name("小王").age(31).build();
+
+        assertEquals(person, same);
+        assertEquals(person.hashCode(), same.hashCode());
+        assertFalse(person.equals(older));
+    }
+
+    @Test
+    public void internerReturnsCanonicalPerson() {
+        PersonInterner interner = new PersonInterner();
+        Person person = interner.intern(build(null));
+        for (int i = 0; i < 1000; i++) {
+            interner.intern(new Person.Builder().name("路人" + i).age(i).build());
+        }
+
+        assertSame(person, build(interner));
+        assertSame(person, interner.intern(build(null)));
+        assertEquals(1001, interner.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsetAgeMarkerIsRejected() {
+        new Person.Builder().age(Person.UNSET_AGE);
+    }
+
+    @Test
+    public void nullAgeIsUnset() {
+        Person person = new Person.Builder().name("小王").age((Integer) null).build();
+
+        assertFalse(person.hasAge());
+        assertEquals(null, person.getAge());
+    }
+
+    @Test
+    public void csvRowWithUnsetAgeMarkerIsRejected() throws IOException {
+        Path file = Files.createTempFile("persons", ".csv");
+        try {
+            Files.write(file, "Amy,-2147483648,,\n".getBytes(StandardCharsets.UTF_8));
+            List<Person> persons = new ArrayList<>();
+            try (PersonCsvLoader loader = new PersonCsvLoader(1, 1024, false)) {
+                loader.load(file, true, persons::add);
+                fail("loaded " + persons);
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("invalid age"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static Person build(PersonInterner interner) {
+        return Person.Builder.forCurrentThread()
+                .interner(interner)
+                .name("小王")
+                .age(30)
+                .nationality(Nationality.CHINA)
+                .skinColor(SkinColor.YELLOW)
+                .build();
+    }
+
+    /**
+     * 先运行一次work预热，返回第二次运行时当前线程分配的字节数
+     */
+    private static long allocatedBytes(Runnable work) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        work.run();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        work.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+}
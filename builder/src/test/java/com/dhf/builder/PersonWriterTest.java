@@ -0,0 +1,100 @@
+package com.dhf.builder;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PersonWriterTest {
+
+    private static final String[] NAMES = {"小王", "Amy", "", "José", "😀笑脸", "坏\uD800代理", "\uDC00"};
+    private static final int[] AGES = {Person.UNSET_AGE, 0, 7, 30, 100, -1, Integer.MAX_VALUE, Person.UNSET_AGE + 1};
+
+    @Test
+    public void appendToAndWriteToMatchToString() throws IOException {
+        Random random = new Random(11);
+        Nationality[] nationalities = Nationality.values();
+        SkinColor[] skinColors = SkinColor.values();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (int i = 0; i < 5000; i++) {
+            Person.Builder builder = new Person.Builder().name(NAMES[random.nextInt(NAMES.length)]);
+            int age = AGES[random.nextInt(AGES.length)];
+            if (age != Person.UNSET_AGE) {
+                builder.age(age);
+            }
+            if (random.nextBoolean()) {
+                builder.nationality(nationalities[random.nextInt(nationalities.length)]);
+            }
+            if (random.nextBoolean()) {
+                builder.skinColor(skinColors[random.nextInt(skinColors.length)]);
+            }
+            Person person = builder.build();
+
+            String expected = describe(person);
+            assertEquals(expected, person.toString());
+            assertEquals(expected, person.appendTo(new StringBuilder("前缀")).substring(2));
+
+            buffer.clear();
+            person.writeTo(buffer);
+            buffer.flip();
+            byte[] written = new byte[buffer.remaining()];
+            buffer.get(written);
+            // 不成对的代理字符和String.getBytes一样写成'?'
+            assertArrayEquals(expected, expected.getBytes(StandardCharsets.UTF_8), written);
+        }
+    }
+
+    @Test
+    public void utf8LengthMatchesWrittenBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        for (String name : NAMES) {
+            buffer.clear();
+            PersonWriter.writeUtf8(name, buffer);
+            assertEquals(name, name.getBytes(StandardCharsets.UTF_8).length, buffer.position());
+            assertEquals(name, buffer.position(), PersonWriter.utf8Length(name));
+        }
+    }
+
+    @Test
+    public void writeToFullBufferOverflows() {
+        Person person = new Person.Builder().name("小王").age(30).nationality(Nationality.CHINA).build();
+        int length = person.toString().getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer exact = ByteBuffer.allocate(length);
+        person.writeTo(exact);
+        assertEquals(0, exact.remaining());
+
+        try {
+            person.writeTo(ByteBuffer.allocate(length - 1));
+            fail();
+        } catch (BufferOverflowException expected) {
+            // 空间不足时直接抛出异常
+        }
+    }
+
+    /**
+     * 引入PersonWriter之前toString()拼接字符串的写法
+     */
+    private static String describe(Person person) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(person.getName());
+        if (null != person.getNationality()) {
+            sb.append(" 是来自 ").append(person.getNationality().toString()).append(" 的");
+        }
+        if (person.hasAge()) {
+            sb.append(" ").append(person.getAgeAsInt()).append("岁的");
+        }
+        if (null != person.getSkinColor()) {
+            sb.append(" 有着").append(person.getSkinColor()).append("皮肤的");
+        }
+        sb.append("一个人");
+        return sb.toString();
+    }
+}
@@ -1,14 +1,57 @@
 package com.dhf;
 
+import com.dhf.chain.ChainMetrics;
 import com.dhf.chain.Commander;
+import com.dhf.chain.PipelinedCommander;
 import com.dhf.chain.Request;
+import com.dhf.chain.RequestHandler;
+import com.dhf.chain.RequestPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class Application {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Application.class);
+
     public static void main(String[] args) {
         Commander commander = new Commander();
+        ChainMetrics metrics = commander.enableMetrics("commander");
 
         commander.handleRequest(new Request("正常航行", Request.RequestType.SAILING));
         commander.handleRequest(new Request("原地待命", Request.RequestType.AWAIT_ORDERS));
         commander.handleRequest(new Request("发射驱逐导弹", Request.RequestType.SHOOTING));
+
+        LOGGER.info("共{}个请求，{}个没有被处理，{}处理了{}个请求", metrics.getRequestCount(), metrics.getUnhandledCount(),
+                metrics.getHandlerMetrics(0).getHandlerName(), metrics.getHandlerMetrics(0).getHandledCount());
+
+        // 运行时把炮手调整到链的最前面
+        List<RequestHandler> handlers = new ArrayList<>(commander.getHandlers());
+        handlers.add(0, handlers.remove(handlers.size() - 1));
+        commander.setHandlers(handlers);
+        commander.handleRequest(new Request("再次发射驱逐导弹", Request.RequestType.SHOOTING));
+        // 调整顺序后仍在链上的处理者保留之前的统计
+        LOGGER.info("共{}个请求，{}处理了{}个请求", metrics.getRequestCount(),
+                metrics.getHandlerMetrics(0).getHandlerName(), metrics.getHandlerMetrics(0).getHandledCount());
+
+        RequestPool pool = new RequestPool(16, false);
+        for (int i = 0; i < 3; i++) {
+            Request request = pool.acquire("第" + (i + 1) + "次巡航", Request.RequestType.SAILING);
+            try {
+                commander.handleRequest(request);
+            } finally {
+                pool.release(request);
+            }
+        }
+
+        // 流水线是单独的一条链，统计不会计入指挥官的统计
+        try (PipelinedCommander pipeline = new PipelinedCommander(commander.getHandlers(), 1024, 64)) {
+            ChainMetrics pipelineMetrics = pipeline.enableMetrics("pipeline");
+            pipeline.submit(new Request("继续航行", Request.RequestType.SAILING)).join();
+            pipeline.submit(new Request("开火", Request.RequestType.SHOOTING)).join();
+            LOGGER.info("流水线共{}个请求，指挥官共{}个请求", pipelineMetrics.getRequestCount(), metrics.getRequestCount());
+            pipeline.disableMetrics();
+        }
     }
 }
@@ -14,12 +14,7 @@ public class Captain extends RequestHandler {
     }
 
     @Override
-    public void handleRequest(Request request) {
-        if (request.getType() == Request.RequestType.SAILING) {
-            printHandleMessage(request);
-            request.markRequest();
-        } else {
-            super.handleRequest(request);
-        }
+    public Request.RequestType getHandledType() {
+        return Request.RequestType.SAILING;
     }
 }
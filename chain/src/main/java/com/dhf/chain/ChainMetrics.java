@@ -0,0 +1,149 @@
+package com.dhf.chain;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一条链的统计，链上每个位置有自己的{@link HandlerMetrics}，和整条链的统计一起注册为JMX MBean：
+ * com.dhf.chain:type=Chain,chain=链的名字 和 com.dhf.chain:type=RequestHandler,chain=链的名字,index=处理者的位置。
+ * 统计属于链而不是处理者，同一个处理者出现在多条链上时（例如由{@link Commander#getHandlers()}创建的{@link PipelinedCommander}），
+ * 每条链分别统计，链的请求数和各个位置的调用次数总是对得上
+ */
+public class ChainMetrics implements ChainMetricsMBean {
+    private static final String DOMAIN = "com.dhf.chain";
+
+    private final String chainName;
+    private final List<ObjectName> registered = new ArrayList<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder unhandled = new LongAdder();
+    private volatile List<RequestHandler> handlers;
+    private volatile HandlerMetrics[] handlerMetrics;
+
+    private ChainMetrics(String chainName) {
+        this.chainName = chainName;
+    }
+
+    /**
+     * 为handlers组成的链创建统计并注册MBean，同一个名字的链只能注册一次
+     */
+    public static ChainMetrics register(String chainName, List<RequestHandler> handlers) {
+        ChainMetrics chainMetrics = new ChainMetrics(chainName);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            chainMetrics.register(server, new ObjectName(DOMAIN + ":type=Chain,chain=" + ObjectName.quote(chainName)),
+                    chainMetrics);
+            chainMetrics.update(handlers);
+        } catch (JMException e) {
+            chainMetrics.unregister();
+            throw new IllegalStateException("failed to register metrics for chain " + chainName, e);
+        }
+        return chainMetrics;
+    }
+
+    /**
+     * 链上的处理者变化后调用，仍然在链上的处理者保留原来的统计，新加入的处理者从0开始统计，
+     * 处理者的MBean按新的位置重新注册，整条链的统计不受影响
+     */
+    synchronized void update(List<RequestHandler> newHandlers) throws JMException {
+        Map<RequestHandler, HandlerMetrics> previous = new IdentityHashMap<>();
+        List<RequestHandler> oldHandlers = handlers;
+        for (int i = 0; null != oldHandlers && i < oldHandlers.size(); i++) {
+            previous.putIfAbsent(oldHandlers.get(i), handlerMetrics[i]);
+        }
+        HandlerMetrics[] metrics = new HandlerMetrics[newHandlers.size()];
+        for (int i = 0; i < metrics.length; i++) {
+            RequestHandler handler = newHandlers.get(i);
+            HandlerMetrics reused = previous.remove(handler);
+            metrics[i] = null == reused ? new HandlerMetrics(handler.toString()) : reused;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        // 第一个是整条链的MBean，保留
+        for (ObjectName name : registered.subList(1, registered.size())) {
+            unregister(server, name);
+        }
+        registered.subList(1, registered.size()).clear();
+        String chain = ObjectName.quote(chainName);
+        for (int i = 0; i < metrics.length; i++) {
+            register(server, new ObjectName(DOMAIN + ":type=RequestHandler,chain=" + chain + ",index=" + i),
+                    metrics[i]);
+        }
+        this.handlers = new ArrayList<>(newHandlers);
+        this.handlerMetrics = metrics;
+    }
+
+    private void register(MBeanServer server, ObjectName name, Object mbean) throws JMException {
+        server.registerMBean(mbean, name);
+        registered.add(name);
+    }
+
+    private static void unregister(MBeanServer server, ObjectName name) {
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            // 已经被注销了，忽略
+        }
+    }
+
+    /**
+     * 注销MBean
+     */
+    public synchronized void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            unregister(server, name);
+        }
+        registered.clear();
+    }
+
+    /**
+     * 和当前处理者一一对应的统计，传给{@link RequestDispatcher}或流水线的各级使用
+     */
+    HandlerMetrics[] getHandlerMetrics() {
+        return handlerMetrics;
+    }
+
+    /**
+     * 记录一个经过整条链的请求
+     */
+    void record(Request request) {
+        requests.increment();
+        if (!request.isHandled()) {
+            unhandled.increment();
+        }
+    }
+
+    public HandlerMetrics getHandlerMetrics(int index) {
+        return handlerMetrics[index];
+    }
+
+    public String getChainName() {
+        return chainName;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getUnhandledCount() {
+        return unhandled.sum();
+    }
+
+    @Override
+    public void reset() {
+        requests.reset();
+        unhandled.reset();
+        for (HandlerMetrics metrics : handlerMetrics) {
+            metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.dhf.chain;
+
+/**
+ * 整条链的统计信息
+ */
+public interface ChainMetricsMBean {
+    long getRequestCount();
+
+    /**
+     * 经过了整条链仍然没有被处理的请求数
+     */
+    long getUnhandledCount();
+
+    void reset();
+}
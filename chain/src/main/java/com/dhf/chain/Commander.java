@@ -1,20 +1,104 @@
 package com.dhf.chain;
 
+import javax.management.JMException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * 指挥官
+ * 指挥官。链在运行时可以修改：每次修改都会基于当前的处理者列表编译出新的不可变{@link RequestDispatcher}并整体替换，
+ * 正在处理的请求继续使用旧的链，处理请求时不加锁，修改链也不会暂停请求的处理。
+ * 链上处理者的顺序由Commander维护，处理者自身的next不再起作用
  */
 public class Commander {
-    private RequestHandler chain;
+    private volatile RequestDispatcher dispatcher;
+    private volatile ChainMetrics metrics;
 
     public Commander() {
         createChain();
     }
 
     private void createChain() {
-        chain = new Captain(new Gunny(new Gunner(null)));
+        dispatcher = RequestDispatcher.compile(new Captain(new Gunny(new Gunner(null))));
+    }
+
+    /**
+     * 链上的处理者，按链上的顺序排列
+     */
+    public List<RequestHandler> getHandlers() {
+        return dispatcher.getHandlers();
+    }
+
+    /**
+     * 在index位置插入处理者
+     */
+    public synchronized void addHandler(int index, RequestHandler handler) {
+        List<RequestHandler> handlers = new ArrayList<>(getHandlers());
+        handlers.add(index, handler);
+        publish(handlers);
+    }
+
+    /**
+     * 移除处理者，处理者不在链上时返回false
+     */
+    public synchronized boolean removeHandler(RequestHandler handler) {
+        List<RequestHandler> handlers = new ArrayList<>(getHandlers());
+        if (!handlers.remove(handler)) {
+            return false;
+        }
+        publish(handlers);
+        return true;
+    }
+
+    /**
+     * 用handlers整体替换链，可以用来调整处理者的顺序
+     */
+    public synchronized void setHandlers(List<RequestHandler> handlers) {
+        publish(new ArrayList<>(handlers));
+    }
+
+    /**
+     * 开启统计时先更新统计，仍然在链上的处理者保留之前的统计数据
+     */
+    private void publish(List<RequestHandler> handlers) {
+        ChainMetrics current = metrics;
+        if (null == current) {
+            dispatcher = RequestDispatcher.compile(handlers);
+            return;
+        }
+        try {
+            current.update(handlers);
+        } catch (JMException e) {
+            throw new IllegalStateException("failed to register metrics for chain " + current.getChainName(), e);
+        }
+        dispatcher = RequestDispatcher.compile(handlers, current.getHandlerMetrics());
+    }
+
+    /**
+     * 开启这条链的统计，并注册为JMX MBean。统计只记录经过这个Commander的请求
+     */
+    public synchronized ChainMetrics enableMetrics(String name) {
+        if (null == metrics) {
+            ChainMetrics created = ChainMetrics.register(name, getHandlers());
+            // 先开启整条链的统计再换上记录各个处理者的dispatcher，经过新dispatcher的请求都会计入整条链的请求数
+            metrics = created;
+            dispatcher = RequestDispatcher.compile(getHandlers(), created.getHandlerMetrics());
+        }
+        return metrics;
+    }
+
+    public synchronized void disableMetrics() {
+        if (null != metrics) {
+            dispatcher = RequestDispatcher.compile(getHandlers());
+            metrics.unregister();
+            metrics = null;
+        }
     }
 
     public void handleRequest(Request request) {
-        chain.handleRequest(request);
+        dispatcher.dispatch(request);
+        ChainMetrics current = metrics;
+        if (null != current) {
+            current.record(request);
+        }
     }
 }
@@ -14,12 +14,7 @@ public class Gunner extends RequestHandler {
     }
 
     @Override
-    public void handleRequest(Request request) {
-        if (request.getType() == Request.RequestType.SHOOTING) {
-            printHandleMessage(request);
-            request.markRequest();
-        } else {
-            super.handleRequest(request);
-        }
+    public Request.RequestType getHandledType() {
+        return Request.RequestType.SHOOTING;
     }
 }
@@ -15,12 +15,7 @@ public class Gunny extends RequestHandler {
     }
 
     @Override
-    public void handleRequest(Request request) {
-        if (request.getType() == Request.RequestType.AWAIT_ORDERS) {
-            printHandleMessage(request);
-            request.markRequest();
-        } else {
-            super.handleRequest(request);
-        }
+    public Request.RequestType getHandledType() {
+        return Request.RequestType.AWAIT_ORDERS;
     }
 }
@@ -0,0 +1,11 @@
+package com.dhf.chain;
+
+/**
+ * 处理者处理请求的结果
+ */
+public enum HandleResult {
+    // 已处理，请求不再向后传递
+    HANDLED,
+    // 未处理，交给链上的下一个处理者
+    PASS
+}
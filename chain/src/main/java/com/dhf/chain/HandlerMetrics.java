@@ -0,0 +1,100 @@
+package com.dhf.chain;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个处理者的调用次数、处理次数、放行次数和耗时分布，计数和耗时分布的每个区间都使用LongAdder，多线程同时记录时竞争很小
+ */
+public class HandlerMetrics implements HandlerMetricsMBean {
+    private static final int BUCKETS = 64;
+
+    private final String handlerName;
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder passThrough = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    public HandlerMetrics(String handlerName) {
+        this.handlerName = handlerName;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    void record(HandleResult result, long nanos) {
+        if (result == HandleResult.HANDLED) {
+            handled.increment();
+        } else {
+            passThrough.increment();
+        }
+        long latency = Math.max(nanos, 0);
+        totalNanos.add(latency);
+        histogram[BUCKETS - Long.numberOfLeadingZeros(latency)].increment();
+    }
+
+    @Override
+    public String getHandlerName() {
+        return handlerName;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return handled.sum() + passThrough.sum();
+    }
+
+    @Override
+    public long getHandledCount() {
+        return handled.sum();
+    }
+
+    @Override
+    public long getPassThroughCount() {
+        return passThrough.sum();
+    }
+
+    @Override
+    public double getMeanLatencyNanos() {
+        long invocations = getInvocationCount();
+        return invocations == 0 ? 0 : (double) totalNanos.sum() / invocations;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long getLatencyPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]: " + percentile);
+        }
+        long[] counts = getLatencyHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        long target = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target && seen > 0) {
+                return i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void reset() {
+        handled.reset();
+        passThrough.reset();
+        totalNanos.reset();
+        for (LongAdder bucket : histogram) {
+            bucket.reset();
+        }
+    }
+}
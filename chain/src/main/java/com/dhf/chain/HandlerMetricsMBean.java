@@ -0,0 +1,28 @@
+package com.dhf.chain;
+
+/**
+ * 处理者的统计信息
+ */
+public interface HandlerMetricsMBean {
+    String getHandlerName();
+
+    long getInvocationCount();
+
+    long getHandledCount();
+
+    long getPassThroughCount();
+
+    double getMeanLatencyNanos();
+
+    /**
+     * 耗时的分布，第i个元素是耗时在[2^(i-1), 2^i)纳秒内的调用次数，第0个元素是耗时为0的调用次数
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * 根据耗时分布估算的百分位耗时，返回对应区间的上界，单位纳秒
+     */
+    long getLatencyPercentileNanos(double percentile);
+
+    void reset();
+}
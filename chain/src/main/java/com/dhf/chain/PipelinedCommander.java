@@ -0,0 +1,199 @@
+package com.dhf.chain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 流水线方式处理请求的指挥官，链上每个处理者是流水线的一级，每级有自己的有界队列和工作线程。
+ * 多个线程可以同时提交请求，每级的工作线程每次从队列中批量取出请求，处理不了的请求交给下一级，
+ * 请求被处理或者经过了所有处理者后，submit返回的future完成；处理者抛出异常时future以该异常完成，流水线继续处理后面的请求。
+ * 同一个线程提交的请求在每一级都按提交的顺序处理。队列满时submit会阻塞调用方。
+ * 流水线是独立的一条链，开启统计后注册自己的{@link ChainMetrics}，不会计入创建它的Commander的统计
+ */
+public class PipelinedCommander implements AutoCloseable {
+    private static final Task POISON = new Task(null);
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    /**
+     * submit持有读锁，close持有写锁，保证关闭时放入的结束标记之后不会再有请求进入第一级的队列
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+    private volatile ChainMetrics metrics;
+
+    public PipelinedCommander(List<RequestHandler> handlers, int queueCapacity, int maxBatch) {
+        if (handlers.isEmpty()) {
+            throw new IllegalArgumentException("handlers must not be empty");
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        }
+        for (RequestHandler handler : handlers) {
+            stages.add(new Stage(this, handler, queueCapacity, maxBatch));
+        }
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            stage.next = i + 1 < stages.size() ? stages.get(i + 1) : null;
+            Thread worker = new Thread(stage::run, "pipeline-" + stage.handler);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    public CompletableFuture<Request> submit(Request request) {
+        Task task = new Task(request);
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("commander is closed");
+            }
+            stages.get(0).put(task);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return task.future;
+    }
+
+    /**
+     * 开启流水线各级的统计，并注册为JMX MBean
+     */
+    public synchronized ChainMetrics enableMetrics(String name) {
+        if (null == metrics) {
+            List<RequestHandler> handlers = new ArrayList<>();
+            for (Stage stage : stages) {
+                handlers.add(stage.handler);
+            }
+            ChainMetrics created = ChainMetrics.register(name, handlers);
+            HandlerMetrics[] handlerMetrics = created.getHandlerMetrics();
+            for (int i = 0; i < stages.size(); i++) {
+                stages.get(i).metrics = handlerMetrics[i];
+            }
+            metrics = created;
+        }
+        return metrics;
+    }
+
+    public synchronized void disableMetrics() {
+        if (null != metrics) {
+            for (Stage stage : stages) {
+                stage.metrics = null;
+            }
+            metrics.unregister();
+            metrics = null;
+        }
+    }
+
+    /**
+     * 不再接收新的请求，等待已经提交的请求处理完
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                stages.get(0).put(POISON);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Task {
+        final Request request;
+        final CompletableFuture<Request> future = new CompletableFuture<>();
+
+        Task(Request request) {
+            this.request = request;
+        }
+    }
+
+    private static final class Stage {
+        final PipelinedCommander owner;
+        final RequestHandler handler;
+        final BlockingQueue<Task> queue;
+        final int maxBatch;
+        Stage next;
+        volatile HandlerMetrics metrics;
+
+        Stage(PipelinedCommander owner, RequestHandler handler, int queueCapacity, int maxBatch) {
+            this.owner = owner;
+            this.handler = handler;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.maxBatch = maxBatch;
+        }
+
+        void put(Task task) {
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("interrupted while submitting request", e);
+            }
+        }
+
+        void run() {
+            List<Task> batch = new ArrayList<>(maxBatch);
+            while (true) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, maxBatch - 1);
+                try {
+                    for (Task task : batch) {
+                        if (task == POISON) {
+                            if (next != null) {
+                                next.queue.put(POISON);
+                            }
+                            return;
+                        }
+                        process(task);
+                    }
+                } catch (InterruptedException e) {
+                    for (Task task : batch) {
+                        task.future.cancel(false);
+                    }
+                    return;
+                }
+                batch.clear();
+            }
+        }
+
+        private void process(Task task) throws InterruptedException {
+            HandleResult result;
+            try {
+                result = handler.invoke(task.request, metrics);
+            } catch (Throwable e) {
+                // 包括Error在内的异常只影响当前请求，工作线程退出的话之后的请求都不会完成
+                task.future.completeExceptionally(e);
+                return;
+            }
+            if (result == HandleResult.HANDLED || next == null) {
+                ChainMetrics chainMetrics = owner.metrics;
+                if (null != chainMetrics) {
+                    chainMetrics.record(task.request);
+                }
+                task.future.complete(task.request);
+            } else {
+                next.queue.put(task);
+            }
+        }
+    }
+}
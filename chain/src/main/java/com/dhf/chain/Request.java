@@ -4,28 +4,84 @@ package com.dhf.chain;
  * 请求
  */
 public class Request {
-    private final String description;
-    private final RequestType type;
+    private String description;
+    private RequestType type;
     private boolean isHandled;
+    /**
+     * 从池中获取的请求保存所属的池，直接创建的请求为null
+     */
+    private final RequestPool pool;
+    /**
+     * 池中的请求在池的空闲列表中时为true，用来发现重复归还
+     */
+    private boolean idle;
+    /**
+     * 只在调试模式的池中使用，为true时表示请求已经归还，之后的访问会抛出异常
+     */
+    private boolean released;
 
     public Request(String description, RequestType type) {
         this.description = description;
         this.type = type;
+        this.pool = null;
+    }
+
+    Request(RequestPool pool) {
+        this.pool = pool;
+        this.idle = true;
+    }
+
+    void reset(String description, RequestType type) {
+        this.description = description;
+        this.type = type;
+        this.isHandled = false;
+        this.idle = false;
+        this.released = false;
+    }
+
+    RequestPool getPool() {
+        return pool;
+    }
+
+    boolean isIdle() {
+        return idle;
+    }
+
+    /**
+     * 归还到池中，清空描述，不再引用调用方的字符串
+     */
+    void markIdle() {
+        idle = true;
+        description = null;
+    }
+
+    void markReleased() {
+        released = true;
+    }
+
+    private void checkNotReleased() {
+        if (released) {
+            throw new IllegalStateException("request is used after being released to the pool");
+        }
     }
 
     public boolean isHandled() {
+        checkNotReleased();
         return isHandled;
     }
 
     public void setHandled(boolean handled) {
+        checkNotReleased();
         isHandled = handled;
     }
 
     public String getDescription() {
+        checkNotReleased();
         return description;
     }
 
     public RequestType getType() {
+        checkNotReleased();
         return type;
     }
 
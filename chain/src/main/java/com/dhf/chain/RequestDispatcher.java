@@ -0,0 +1,107 @@
+package com.dhf.chain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * 把处理者链编译成按请求类型查找的表，请求只需要查一次表就能找到处理者，不用沿着链逐个判断。
+ * 链上第一个依赖其他条件判断的处理者（{@link RequestHandler#getHandledType()}返回null）之前的处理者才能编入表中，
+ * 每种类型在表中对应一条路线：这部分处理者中声明了该类型的处理者按链上的顺序排列，后面接上从第一个依赖其他条件判断的处理者开始的所有处理者。
+ * 处理者在{@link RequestHandler#process(Request)}中返回PASS时请求沿着路线交给下一个处理者，
+ * 声明了其他类型的处理者不会处理这个请求所以不在路线上，保证和直接沿着链处理的结果一致。
+ * 编译时可以带上和处理者一一对应的{@link HandlerMetrics}，分发时记录到对应位置的统计中
+ */
+public final class RequestDispatcher {
+    private final List<RequestHandler> handlers;
+    private final EnumMap<Request.RequestType, Route> table;
+
+    private RequestDispatcher(List<RequestHandler> handlers, HandlerMetrics[] metrics) {
+        this.handlers = handlers;
+        this.table = new EnumMap<>(Request.RequestType.class);
+        int fallbackIndex = handlers.size();
+        for (int i = 0; i < handlers.size(); i++) {
+            if (handlers.get(i).getHandledType() == null) {
+                fallbackIndex = i;
+                break;
+            }
+        }
+        for (Request.RequestType type : Request.RequestType.values()) {
+            List<Integer> positions = new ArrayList<>();
+            for (int i = 0; i < fallbackIndex; i++) {
+                if (handlers.get(i).getHandledType() == type) {
+                    positions.add(i);
+                }
+            }
+            for (int i = fallbackIndex; i < handlers.size(); i++) {
+                positions.add(i);
+            }
+            table.put(type, new Route(handlers, metrics, positions));
+        }
+    }
+
+    /**
+     * 编译通过next连接起来的链
+     */
+    public static RequestDispatcher compile(RequestHandler chain) {
+        List<RequestHandler> handlers = new ArrayList<>();
+        for (RequestHandler handler = chain; handler != null; handler = handler.getNext()) {
+            handlers.add(handler);
+        }
+        return compile(handlers);
+    }
+
+    /**
+     * 按列表中的顺序编译处理者，忽略处理者自身的next
+     */
+    public static RequestDispatcher compile(List<RequestHandler> handlers) {
+        return compile(handlers, null);
+    }
+
+    /**
+     * 按列表中的顺序编译处理者，metrics[i]记录handlers中第i个处理者的统计，为null时不统计
+     */
+    static RequestDispatcher compile(List<RequestHandler> handlers, HandlerMetrics[] metrics) {
+        if (null != metrics && metrics.length != handlers.size()) {
+            throw new IllegalArgumentException("expected " + handlers.size() + " metrics but got " + metrics.length);
+        }
+        return new RequestDispatcher(Collections.unmodifiableList(new ArrayList<>(handlers)), metrics);
+    }
+
+    public void dispatch(Request request) {
+        Route route = table.get(request.getType());
+        RequestHandler[] routeHandlers = route.handlers;
+        HandlerMetrics[] routeMetrics = route.metrics;
+        for (int i = 0; i < routeHandlers.length; i++) {
+            if (routeHandlers[i].invoke(request, routeMetrics[i]) == HandleResult.HANDLED) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 编译时的所有处理者，按处理的顺序排列
+     */
+    public List<RequestHandler> getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * 一种请求类型依次经过的处理者和对应位置的统计
+     */
+    private static final class Route {
+        final RequestHandler[] handlers;
+        final HandlerMetrics[] metrics;
+
+        Route(List<RequestHandler> chain, HandlerMetrics[] chainMetrics, List<Integer> positions) {
+            this.handlers = new RequestHandler[positions.size()];
+            this.metrics = new HandlerMetrics[positions.size()];
+            for (int i = 0; i < handlers.length; i++) {
+                int position = positions.get(i);
+                handlers[i] = chain.get(position);
+                metrics[i] = null == chainMetrics ? null : chainMetrics[position];
+            }
+        }
+    }
+}
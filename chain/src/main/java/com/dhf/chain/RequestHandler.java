@@ -4,7 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * 消息处理者
+ * 消息处理者。子类通过覆盖{@link #process(Request)}决定是否处理请求，只根据请求类型判断时覆盖{@link #getHandledType()}即可；
+ * 沿着链传递请求由{@link #handleRequest(Request)}统一完成，子类不能覆盖
  */
 public abstract class RequestHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(RequestHandler.class);
@@ -14,9 +15,56 @@ public abstract class RequestHandler {
         this.next = next;
     }
 
-    public void handleRequest(Request request) {
-        if (null != next) {
-            next.handleRequest(request);
+    public RequestHandler getNext() {
+        return next;
+    }
+
+    /**
+     * 处理者只处理一种类型的请求时返回这个类型，{@link RequestDispatcher}据此把链编译成按类型查找的表，
+     * 这个类型的请求仍然可以在{@link #process(Request)}中返回PASS，但不能处理其他类型的请求；
+     * 可能处理多种类型的请求时返回null
+     */
+    public Request.RequestType getHandledType() {
+        return null;
+    }
+
+    /**
+     * 处理单个请求，不向后传递，子类覆盖这个方法实现自己的处理逻辑。处理了请求时返回{@link HandleResult#HANDLED}，
+     * 返回{@link HandleResult#PASS}时请求会交给下一个处理者。默认处理{@link #getHandledType()}类型的请求
+     */
+    protected HandleResult process(Request request) {
+        Request.RequestType type = getHandledType();
+        if (null != type && request.getType() == type) {
+            printHandleMessage(request);
+            request.markRequest();
+            return HandleResult.HANDLED;
+        }
+        return HandleResult.PASS;
+    }
+
+    /**
+     * 调用{@link #process(Request)}，metrics不为null时记录结果和耗时。
+     * 同一个处理者可以出现在多条链上，统计属于链上的位置而不是处理者，所以由调用方传入
+     */
+    final HandleResult invoke(Request request, HandlerMetrics metrics) {
+        if (null == metrics) {
+            return process(request);
+        }
+        long start = System.nanoTime();
+        HandleResult result = process(request);
+        metrics.record(result, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * 从当前处理者开始沿着链处理请求，通过循环而不是递归遍历处理者，链再长调用栈的深度也不变。
+     * 每个处理者的逻辑在{@link #process(Request)}中，所以这个方法是final的
+     */
+    public final void handleRequest(Request request) {
+        for (RequestHandler handler = this; null != handler; handler = handler.next) {
+            if (handler.process(request) == HandleResult.HANDLED) {
+                return;
+            }
         }
     }
 
@@ -0,0 +1,67 @@
+package com.dhf.chain;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可复用的请求池，池中的请求在创建时就分配好，处理请求时不再产生垃圾。
+ * <p>
+ * 使用规则：通过{@link #acquire}获取请求的一方拥有该请求，处理完之后必须调用{@link #release}归还，
+ * 归还后不能再使用；处理者不能在处理结束后继续持有请求。
+ * <p>
+ * 重复归还总是会抛出IllegalStateException，否则同一个请求会两次进入空闲列表，之后被两个调用方同时使用。
+ * 调试模式下归还的请求还会被标记为已归还，之后再访问会抛出IllegalStateException；
+ * 为了保证能检测出来，调试模式下归还的请求不会被复用
+ */
+public class RequestPool {
+    private final ArrayBlockingQueue<Request> free;
+    private final boolean debug;
+    private final LongAdder misses = new LongAdder();
+
+    public RequestPool(int capacity, boolean debug) {
+        this.free = new ArrayBlockingQueue<>(capacity);
+        this.debug = debug;
+        for (int i = 0; i < capacity; i++) {
+            free.offer(new Request(this));
+        }
+    }
+
+    /**
+     * 获取一个请求，池中没有空闲的请求时创建新的请求
+     */
+    public Request acquire(String description, Request.RequestType type) {
+        Request request = free.poll();
+        if (null == request) {
+            misses.increment();
+            request = new Request(this);
+        }
+        request.reset(description, type);
+        return request;
+    }
+
+    public void release(Request request) {
+        if (request.getPool() != this) {
+            throw new IllegalArgumentException("request does not belong to this pool");
+        }
+        if (request.isIdle()) {
+            throw new IllegalStateException("request is released twice");
+        }
+        request.markIdle();
+        if (debug) {
+            request.markReleased();
+            return;
+        }
+        free.offer(request);
+    }
+
+    /**
+     * 池中没有空闲请求而新创建请求的次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getIdleCount() {
+        return free.size();
+    }
+}
@@ -0,0 +1,137 @@
+package com.dhf.chain;
+
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChainMetricsTest {
+
+    @Test
+    public void countsEachHandlerPosition() {
+        Commander commander = new Commander();
+        ChainMetrics metrics = commander.enableMetrics("counts");
+        try {
+            send(commander, Request.RequestType.SAILING, 3);
+            send(commander, Request.RequestType.AWAIT_ORDERS, 2);
+            send(commander, Request.RequestType.SHOOTING, 5);
+
+            assertEquals(10, metrics.getRequestCount());
+            assertEquals(0, metrics.getUnhandledCount());
+            // 查表分发时请求只经过声明了自己类型的处理者
+            assertCounts(metrics.getHandlerMetrics(0), 3, 0);
+            assertCounts(metrics.getHandlerMetrics(1), 2, 0);
+            assertCounts(metrics.getHandlerMetrics(2), 5, 0);
+            assertEquals(5, countLatencies(metrics.getHandlerMetrics(2)));
+        } finally {
+            commander.disableMetrics();
+        }
+    }
+
+    @Test
+    public void reorderingKeepsCountsOfRemainingHandlers() {
+        Commander commander = new Commander();
+        ChainMetrics metrics = commander.enableMetrics("reorder");
+        try {
+            send(commander, Request.RequestType.SHOOTING, 4);
+            List<RequestHandler> handlers = new ArrayList<>(commander.getHandlers());
+            RequestHandler gunner = handlers.remove(2);
+            handlers.add(0, gunner);
+            commander.setHandlers(handlers);
+            send(commander, Request.RequestType.SHOOTING, 1);
+
+            assertEquals(5, metrics.getRequestCount());
+            assertEquals(gunner.toString(), metrics.getHandlerMetrics(0).getHandlerName());
+            assertCounts(metrics.getHandlerMetrics(0), 5, 0);
+            assertCounts(metrics.getHandlerMetrics(2), 0, 0);
+        } finally {
+            commander.disableMetrics();
+        }
+    }
+
+    @Test
+    public void pipelineCountsPassesSeparatelyFromCommander() {
+        Commander commander = new Commander();
+        ChainMetrics commanderMetrics = commander.enableMetrics("owner");
+        try (PipelinedCommander pipeline = new PipelinedCommander(commander.getHandlers(), 16, 4)) {
+            ChainMetrics metrics = pipeline.enableMetrics("pipelined");
+            try {
+                for (int i = 0; i < 3; i++) {
+                    pipeline.submit(new Request("开火", Request.RequestType.SHOOTING)).join();
+                }
+                pipeline.submit(new Request("航行", Request.RequestType.SAILING)).join();
+
+                assertEquals(4, metrics.getRequestCount());
+                // 流水线沿着链逐级传递，射击请求经过舰长和枪炮长时被放行
+                assertCounts(metrics.getHandlerMetrics(0), 1, 3);
+                assertCounts(metrics.getHandlerMetrics(1), 0, 3);
+                assertCounts(metrics.getHandlerMetrics(2), 3, 0);
+                assertEquals(0, commanderMetrics.getRequestCount());
+                assertEquals(0, commanderMetrics.getHandlerMetrics(0).getInvocationCount());
+            } finally {
+                pipeline.disableMetrics();
+            }
+        } finally {
+            commander.disableMetrics();
+        }
+    }
+
+    @Test
+    public void unhandledRequestsAreCounted() {
+        Commander commander = new Commander();
+        commander.removeHandler(commander.getHandlers().get(2));
+        ChainMetrics metrics = commander.enableMetrics("unhandled");
+        try {
+            send(commander, Request.RequestType.SHOOTING, 2);
+
+            assertEquals(2, metrics.getRequestCount());
+            assertEquals(2, metrics.getUnhandledCount());
+        } finally {
+            commander.disableMetrics();
+        }
+    }
+
+    @Test
+    public void disableUnregistersMBeans() throws Exception {
+        Commander commander = new Commander();
+        ChainMetrics metrics = commander.enableMetrics("registered");
+        ObjectName chain = new ObjectName("com.dhf.chain:type=Chain,chain=" + ObjectName.quote("registered"));
+        ObjectName handler = new ObjectName("com.dhf.chain:type=RequestHandler,chain="
+                + ObjectName.quote("registered") + ",index=0");
+        assertSame(metrics, commander.enableMetrics("registered"));
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(chain));
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(handler));
+
+        commander.disableMetrics();
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(chain));
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(handler));
+    }
+
+    private static void send(Commander commander, Request.RequestType type, int count) {
+        for (int i = 0; i < count; i++) {
+            commander.handleRequest(new Request(type.name(), type));
+        }
+    }
+
+    private static void assertCounts(HandlerMetrics metrics, long handled, long passed) {
+        assertEquals(metrics.getHandlerName(), handled, metrics.getHandledCount());
+        assertEquals(metrics.getHandlerName(), passed, metrics.getPassThroughCount());
+        assertEquals(metrics.getHandlerName(), handled + passed, metrics.getInvocationCount());
+    }
+
+    private static long countLatencies(HandlerMetrics metrics) {
+        long total = 0;
+        for (long count : metrics.getLatencyHistogram()) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,113 @@
+package com.dhf.chain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CommanderTest {
+
+    @Test(timeout = 10000)
+    public void inFlightRequestFinishesOnOldChainWhileNewChainIsPublished() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicReference<RequestHandler> handledBy = new AtomicReference<>();
+        RequestHandler blocking = new RecordingHandler("旧炮手", handledBy) {
+            @Override
+            protected HandleResult process(Request request) {
+                entered.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.process(request);
+            }
+        };
+        Commander commander = new Commander();
+        commander.setHandlers(Arrays.asList(new Captain(null), blocking));
+
+        Request old = new Request("开火", Request.RequestType.SHOOTING);
+        Thread inFlight = new Thread(() -> commander.handleRequest(old));
+        inFlight.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // 旧链上的请求还没有结束，替换链不需要等待它
+        AtomicReference<RequestHandler> newHandledBy = new AtomicReference<>();
+        RequestHandler replacement = new RecordingHandler("新炮手", newHandledBy);
+        List<RequestHandler> handlers = new ArrayList<>(commander.getHandlers());
+        handlers.set(1, replacement);
+        commander.setHandlers(handlers);
+        Request next = new Request("再次开火", Request.RequestType.SHOOTING);
+        commander.handleRequest(next);
+
+        assertTrue(next.isHandled());
+        assertSame(replacement, newHandledBy.get());
+        assertFalse(old.isHandled());
+        assertNull(handledBy.get());
+
+        proceed.countDown();
+        inFlight.join();
+        assertTrue(old.isHandled());
+        assertSame(blocking, handledBy.get());
+        assertEquals(Arrays.asList(handlers.get(0), replacement), commander.getHandlers());
+    }
+
+    @Test
+    public void addAndRemoveHandlers() {
+        Commander commander = new Commander();
+        RequestHandler gunner = commander.getHandlers().get(2);
+        assertTrue(commander.removeHandler(gunner));
+        assertFalse(commander.removeHandler(gunner));
+
+        Request request = new Request("开火", Request.RequestType.SHOOTING);
+        commander.handleRequest(request);
+        assertFalse(request.isHandled());
+
+        commander.addHandler(0, gunner);
+        request = new Request("开火", Request.RequestType.SHOOTING);
+        commander.handleRequest(request);
+        assertTrue(request.isHandled());
+        assertSame(gunner, commander.getHandlers().get(0));
+    }
+
+    private static class RecordingHandler extends RequestHandler {
+        private final String name;
+        private final AtomicReference<RequestHandler> handledBy;
+
+        RecordingHandler(String name, AtomicReference<RequestHandler> handledBy) {
+            super(null);
+            this.name = name;
+            this.handledBy = handledBy;
+        }
+
+        @Override
+        public Request.RequestType getHandledType() {
+            return Request.RequestType.SHOOTING;
+        }
+
+        @Override
+        protected HandleResult process(Request request) {
+            HandleResult result = super.process(request);
+            if (result == HandleResult.HANDLED) {
+                handledBy.set(this);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dhf.chain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较开启和关闭统计时{@link Commander#handleRequest(Request)}的开销，分别用1个和4个线程同时处理请求，
+ * 4个线程时所有线程记录到同一个处理者的统计中。运行方式：
+ * <pre>
+ * mvn -pl chain -am test-compile
+ * mvn -pl chain exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main HandlerMetricsBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HandlerMetricsBenchmark {
+
+    private Commander plain;
+    private Commander measured;
+
+    @Setup
+    public void setUp() {
+        plain = new Commander();
+        measured = new Commander();
+        measured.enableMetrics("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        measured.disableMetrics();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Request withoutMetrics() {
+        return handle(plain);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Request withMetrics() {
+        return handle(measured);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Request withoutMetricsContended() {
+        return handle(plain);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Request withMetricsContended() {
+        return handle(measured);
+    }
+
+    private static Request handle(Commander commander) {
+        Request request = new Request("开火", Request.RequestType.SHOOTING);
+        commander.handleRequest(request);
+        return request;
+    }
+}
@@ -0,0 +1,70 @@
+package com.dhf.chain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1、4、16个生产者同时向{@link PipelinedCommander}提交请求并等待完成，Throughput模式给出所有生产者合计的吞吐量，
+ * SampleTime模式给出单个请求从提交到完成的延迟分布。射击请求要经过流水线的全部三级。运行方式：
+ * <pre>
+ * mvn -pl chain -am test-compile
+ * mvn -pl chain exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main PipelinedCommanderBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PipelinedCommanderBenchmark {
+
+    private PipelinedCommander pipeline;
+
+    @Setup
+    public void setUp() {
+        pipeline = new PipelinedCommander(Arrays.asList(new Captain(null), new Gunny(null), new Gunner(null)),
+                1024, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Request oneProducer() {
+        return submit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Request fourProducers() {
+        return submit();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Request sixteenProducers() {
+        return submit();
+    }
+
+    private Request submit() {
+        return pipeline.submit(new Request("开火", Request.RequestType.SHOOTING)).join();
+    }
+}
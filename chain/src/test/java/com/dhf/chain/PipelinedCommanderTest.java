@@ -0,0 +1,174 @@
+package com.dhf.chain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PipelinedCommanderTest {
+
+    private static final int PRODUCERS = 16;
+    private static final int REQUESTS = 5000;
+
+    @Test(timeout = 60000)
+    public void requestsFromEachProducerCompleteInOrder() throws Exception {
+        OrderRecorder first = new OrderRecorder("前", false);
+        OrderRecorder last = new OrderRecorder("后", true);
+        List<List<CompletableFuture<Request>>> futures = new ArrayList<>();
+        try (PipelinedCommander pipeline = new PipelinedCommander(Arrays.asList(first, new Captain(null), last),
+                64, 16)) {
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                List<CompletableFuture<Request>> submitted = new ArrayList<>(REQUESTS);
+                futures.add(submitted);
+                int producer = p;
+                producers.add(new Thread(() -> {
+                    for (int i = 0; i < REQUESTS; i++) {
+                        Request.RequestType type = i % 2 == 0 ? Request.RequestType.SAILING
+                                : Request.RequestType.SHOOTING;
+                        submitted.add(pipeline.submit(new Request(producer + ":" + i, type)));
+                    }
+                }));
+            }
+            for (Thread producer : producers) {
+                producer.start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            for (List<CompletableFuture<Request>> submitted : futures) {
+                for (CompletableFuture<Request> future : submitted) {
+                    assertTrue(future.get(10, TimeUnit.SECONDS).isHandled());
+                }
+            }
+        }
+
+        // close等待工作线程退出，之后读取记录是安全的
+        assertEquals(PRODUCERS * REQUESTS, first.seen);
+        assertEquals(PRODUCERS * REQUESTS / 2, last.seen);
+        assertFalse(first.outOfOrder);
+        assertFalse(last.outOfOrder);
+    }
+
+    @Test(timeout = 60000)
+    public void closeRacingWithProducersLeavesNoFutureIncomplete() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            PipelinedCommander pipeline = new PipelinedCommander(
+                    Arrays.asList(new Captain(null), new Gunny(null), new Gunner(null)), 4, 4);
+            List<CompletableFuture<Request>> futures = new ArrayList<>();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                producers.add(new Thread(() -> {
+                    started.countDown();
+                    try {
+                        while (true) {
+                            CompletableFuture<Request> future = pipeline.submit(
+                                    new Request("开火", Request.RequestType.SHOOTING));
+                            synchronized (futures) {
+                                futures.add(future);
+                            }
+                        }
+                    } catch (RejectedExecutionException expected) {
+                        // 关闭之后不再接收请求
+                    }
+                }));
+            }
+            for (Thread producer : producers) {
+                producer.start();
+            }
+            started.await();
+            pipeline.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            synchronized (futures) {
+                for (CompletableFuture<Request> future : futures) {
+                    assertTrue("round " + round, future.isDone());
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void errorInHandlerFailsOnlyThatRequest() throws Exception {
+        RequestHandler failing = new RequestHandler(null) {
+            @Override
+            protected HandleResult process(Request request) {
+                if ("坏消息".equals(request.getDescription())) {
+                    throw new AssertionError("处理失败");
+                }
+                return HandleResult.PASS;
+            }
+
+            @Override
+            public String toString() {
+                return "会出错的处理者";
+            }
+        };
+        try (PipelinedCommander pipeline = new PipelinedCommander(Arrays.asList(failing, new Gunner(null)), 16, 4)) {
+            CompletableFuture<Request> failed = pipeline.submit(new Request("坏消息", Request.RequestType.SHOOTING));
+            try {
+                failed.get();
+                fail("request should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AssertionError);
+            }
+
+            Request request = new Request("开火", Request.RequestType.SHOOTING);
+            assertSame(request, pipeline.submit(request).get());
+            assertTrue(request.isHandled());
+        }
+    }
+
+    /**
+     * 检查每个生产者的请求是否按提交的顺序到达，只在所在级的工作线程中访问
+     */
+    private static final class OrderRecorder extends RequestHandler {
+        private final String name;
+        private final boolean handles;
+        private final int[] next = new int[PRODUCERS];
+        int seen;
+        boolean outOfOrder;
+
+        OrderRecorder(String name, boolean handles) {
+            super(null);
+            this.name = name;
+            this.handles = handles;
+        }
+
+        @Override
+        protected HandleResult process(Request request) {
+            String[] parts = request.getDescription().split(":");
+            int producer = Integer.parseInt(parts[0]);
+            int sequence = Integer.parseInt(parts[1]);
+            if (sequence < next[producer]) {
+                outOfOrder = true;
+            }
+            next[producer] = sequence + 1;
+            seen++;
+            if (handles) {
+                request.markRequest();
+                return HandleResult.HANDLED;
+            }
+            return HandleResult.PASS;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
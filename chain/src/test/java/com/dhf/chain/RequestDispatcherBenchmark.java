@@ -0,0 +1,62 @@
+package com.dhf.chain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较沿着链逐个判断和用{@link RequestDispatcher}查表分发的开销。链的前chainLength - 1个处理者都是舰长，
+ * 最后一个是炮手，射击请求沿着链要经过所有处理者，查表只调用炮手。运行方式：
+ * <pre>
+ * mvn -pl chain -am test-compile
+ * mvn -pl chain exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main RequestDispatcherBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RequestDispatcherBenchmark {
+
+    @Param({"3", "10", "100", "1000"})
+    private int chainLength;
+
+    private RequestHandler chain;
+    private RequestDispatcher dispatcher;
+    private Request request;
+
+    @Setup
+    public void setUp() {
+        chain = new Gunner(null);
+        for (int i = 1; i < chainLength; i++) {
+            chain = new Captain(chain);
+        }
+        dispatcher = RequestDispatcher.compile(chain);
+        request = new Request("开火", Request.RequestType.SHOOTING);
+    }
+
+    @Benchmark
+    public boolean walkChain() {
+        chain.handleRequest(request);
+        return request.isHandled();
+    }
+
+    @Benchmark
+    public boolean dispatch() {
+        dispatcher.dispatch(request);
+        return request.isHandled();
+    }
+}
@@ -0,0 +1,119 @@
+package com.dhf.chain;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RequestDispatcherTest {
+
+    private RequestHandler handledBy;
+
+    @Test
+    public void passFromTypedHandlerContinuesToNextMatchingHandler() {
+        RequestHandler captain = new TracingHandler(null, Request.RequestType.SAILING, "舰长", -1);
+        RequestHandler gunny = new TracingHandler(captain, Request.RequestType.AWAIT_ORDERS, "枪炮长", -1);
+        // 描述为"1"的航行请求交给后面的舰长
+        RequestHandler picky = new TracingHandler(gunny, Request.RequestType.SAILING, "大副", 1);
+        RequestDispatcher dispatcher = RequestDispatcher.compile(picky);
+
+        Request request = new Request("1", Request.RequestType.SAILING);
+        dispatcher.dispatch(request);
+        assertTrue(request.isHandled());
+        assertSame(captain, handledBy);
+
+        handledBy = null;
+        request = new Request("0", Request.RequestType.SAILING);
+        dispatcher.dispatch(request);
+        assertSame(picky, handledBy);
+    }
+
+    @Test
+    public void dispatchMatchesChainWalk() {
+        Random random = new Random(42);
+        Request.RequestType[] types = Request.RequestType.values();
+        for (int round = 0; round < 500; round++) {
+            RequestHandler chain = null;
+            int length = 1 + random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                // 大约五分之一的处理者不按类型判断，其余的处理者有一半会放行部分请求
+                Request.RequestType type = random.nextInt(5) == 0 ? null : types[random.nextInt(types.length)];
+                int passing = random.nextBoolean() ? random.nextInt(4) : -1;
+                chain = new TracingHandler(chain, type, "处理者" + i, passing);
+            }
+            RequestDispatcher dispatcher = RequestDispatcher.compile(chain);
+
+            for (Request.RequestType type : types) {
+                for (int description = 0; description < 4; description++) {
+                    Request walked = new Request(String.valueOf(description), type);
+                    handledBy = null;
+                    chain.handleRequest(walked);
+                    RequestHandler expected = handledBy;
+
+                    Request dispatched = new Request(String.valueOf(description), type);
+                    handledBy = null;
+                    dispatcher.dispatch(dispatched);
+
+                    assertSame("round " + round + ", " + type + " " + description, expected, handledBy);
+                    assertEquals(walked.isHandled(), dispatched.isHandled());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void compileFromListIgnoresNext() {
+        RequestHandler captain = new Captain(new Gunner(null));
+        RequestHandler gunny = new Gunny(null);
+        RequestDispatcher dispatcher = RequestDispatcher.compile(Arrays.asList(captain, gunny));
+
+        Request request = new Request("开火", Request.RequestType.SHOOTING);
+        dispatcher.dispatch(request);
+
+        assertEquals(Arrays.asList(captain, gunny), dispatcher.getHandlers());
+        assertFalse(request.isHandled());
+    }
+
+    /**
+     * 按类型判断的处理者，passing不为-1时放行描述为passing的请求；type为null时处理描述为奇数的所有请求
+     */
+    private final class TracingHandler extends RequestHandler {
+        private final Request.RequestType type;
+        private final String name;
+        private final int passing;
+
+        TracingHandler(RequestHandler next, Request.RequestType type, String name, int passing) {
+            super(next);
+            this.type = type;
+            this.name = name;
+            this.passing = passing;
+        }
+
+        @Override
+        public Request.RequestType getHandledType() {
+            return type;
+        }
+
+        @Override
+        protected HandleResult process(Request request) {
+            int description = Integer.parseInt(request.getDescription());
+            boolean accepted = null == type ? description % 2 == 1 : request.getType() == type;
+            if (!accepted || description == passing) {
+                return HandleResult.PASS;
+            }
+            request.markRequest();
+            handledBy = this;
+            return HandleResult.HANDLED;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
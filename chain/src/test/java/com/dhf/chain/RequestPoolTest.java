@@ -0,0 +1,102 @@
+package com.dhf.chain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class RequestPoolTest {
+
+    @Test
+    public void releasedRequestIsReused() {
+        RequestPool pool = new RequestPool(1, false);
+        Request request = pool.acquire("巡航", Request.RequestType.SAILING);
+        request.markRequest();
+        pool.release(request);
+
+        Request reused = pool.acquire("开火", Request.RequestType.SHOOTING);
+
+        assertSame(request, reused);
+        assertEquals("开火", reused.getDescription());
+        assertEquals(Request.RequestType.SHOOTING, reused.getType());
+        assertFalse(reused.isHandled());
+        assertEquals(0, pool.getMissCount());
+    }
+
+    @Test
+    public void emptyPoolCreatesRequests() {
+        RequestPool pool = new RequestPool(1, false);
+        Request first = pool.acquire("巡航", Request.RequestType.SAILING);
+        Request second = pool.acquire("待命", Request.RequestType.AWAIT_ORDERS);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(1, pool.getMissCount());
+        // 池已经满了，多出来的请求被丢弃
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void doubleReleaseIsDetected() {
+        for (boolean debug : new boolean[]{false, true}) {
+            RequestPool pool = new RequestPool(2, debug);
+            Request request = pool.acquire("巡航", Request.RequestType.SAILING);
+            pool.release(request);
+            try {
+                pool.release(request);
+                fail("debug " + debug);
+            } catch (IllegalStateException expected) {
+                assertEquals("request is released twice", expected.getMessage());
+            }
+            assertEquals(debug ? 1 : 2, pool.getIdleCount());
+        }
+    }
+
+    @Test
+    public void releaseClearsDescription() {
+        RequestPool pool = new RequestPool(1, false);
+        Request request = pool.acquire("巡航", Request.RequestType.SAILING);
+        pool.release(request);
+
+        assertNull(request.getDescription());
+    }
+
+    @Test
+    public void useAfterReleaseIsDetectedInDebugMode() {
+        RequestPool pool = new RequestPool(1, true);
+        Request request = pool.acquire("巡航", Request.RequestType.SAILING);
+        pool.release(request);
+
+        try {
+            request.getType();
+            fail();
+        } catch (IllegalStateException expected) {
+            assertEquals("request is used after being released to the pool", expected.getMessage());
+        }
+        try {
+            request.markRequest();
+            fail();
+        } catch (IllegalStateException expected) {
+            // 处理者在归还后修改请求同样会被发现
+        }
+        // 调试模式下归还的请求不会被复用
+        Request next = pool.acquire("待命", Request.RequestType.AWAIT_ORDERS);
+        assertEquals("待命", next.getDescription());
+        assertNotSame(request, next);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requestFromAnotherPoolIsRejected() {
+        RequestPool pool = new RequestPool(1, false);
+        new RequestPool(1, false).release(pool.acquire("巡航", Request.RequestType.SAILING));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requestNotFromPoolIsRejected() {
+        new RequestPool(1, false).release(new Request("巡航", Request.RequestType.SAILING));
+    }
+}
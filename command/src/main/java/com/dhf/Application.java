@@ -3,10 +3,15 @@ package com.dhf;
 import com.dhf.command.Goblin;
 import com.dhf.command.InvisibilitySpell;
 import com.dhf.command.ShrinkSpell;
+import com.dhf.command.SpellJournal;
 import com.dhf.command.Wizard;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class Application {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // 巫师能够发出命令
         Wizard wizard = new Wizard();
         // 命令执行时作用的对象
@@ -33,5 +38,32 @@ public class Application {
 
         wizard.redoLastSpell();
         goblin.printStatus();
+
+        // 历史深度为1时只能undo最后一次施放的咒语，更早的命令已经被淘汰
+        Wizard forgetful = new Wizard(1);
+        Goblin another = new Goblin();
+        forgetful.castSpell(new ShrinkSpell(), another);
+        forgetful.castSpell(new InvisibilitySpell(), another);
+        forgetful.undoLastSpell();
+        forgetful.undoLastSpell();
+        another.printStatus();
+
+        // 施放咒语前先写入日志，重新打开日志后回放记录恢复目标的状态
+        Path path = Files.createTempFile("spell", ".journal");
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Wizard journaled = new Wizard();
+            journaled.setJournal(journal);
+            Goblin goblin1 = new Goblin(1);
+            journaled.castSpell(new ShrinkSpell(), goblin1);
+            journaled.castSpell(new InvisibilitySpell(), goblin1);
+            journaled.undoLastSpell();
+        }
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Goblin restored = new Goblin(1);
+            journal.replay(new Wizard(), id -> id == restored.getId() ? restored : null);
+            restored.printStatus();
+        } finally {
+            Files.delete(path);
+        }
     }
 }
@@ -19,6 +19,13 @@ public abstract class Command {
      */
     public abstract void redo();
 
+    /**
+     * 命令对应的咒语类型，返回null的命令不能写入{@link SpellJournal}
+     */
+    public SpellType getSpellType() {
+        return null;
+    }
+
     @Override
     public abstract String toString();
 }
@@ -0,0 +1,85 @@
+package com.dhf.command;
+
+/**
+ * 基于数组的有界命令历史，用环形缓冲区实现一个栈，容量满了之后再放入命令会淘汰最早的命令，
+ * 所以无论执行多少次命令占用的内存都是固定的
+ */
+public class CommandHistory {
+    private final Command[] commands;
+    // 最早的命令所在的下标
+    private int head;
+    private int size;
+
+    public CommandHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.commands = new Command[capacity];
+    }
+
+    /**
+     * 放入命令，容量满时返回被淘汰的最早的命令，否则返回null
+     */
+    public Command push(Command command) {
+        Command evicted = null;
+        if (size == commands.length) {
+            evicted = commands[head];
+            commands[head] = command;
+            head = next(head);
+        } else {
+            commands[index(size)] = command;
+            size++;
+        }
+        return evicted;
+    }
+
+    /**
+     * 取出最近放入的命令，没有命令时返回null
+     */
+    public Command pop() {
+        if (size == 0) {
+            return null;
+        }
+        int last = index(size - 1);
+        Command command = commands[last];
+        commands[last] = null;
+        size--;
+        return command;
+    }
+
+    /**
+     * 返回最近放入的命令但不取出，没有命令时返回null
+     */
+    public Command peek() {
+        return size == 0 ? null : commands[index(size - 1)];
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            commands[index(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return commands.length;
+    }
+
+    private int index(int offset) {
+        int i = head + offset;
+        return i >= commands.length ? i - commands.length : i;
+    }
+
+    private int next(int i) {
+        return i + 1 == commands.length ? 0 : i + 1;
+    }
+}
@@ -9,6 +9,12 @@ public class Goblin extends Target {
         setVisibility(Visibility.VISIBLE);
     }
 
+    public Goblin(int id) {
+        super(id);
+        setSize(Size.NORMAL);
+        setVisibility(Visibility.VISIBLE);
+    }
+
     @Override
     public String toString() {
         return "Goblin";
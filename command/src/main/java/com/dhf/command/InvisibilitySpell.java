@@ -26,6 +26,11 @@ public class InvisibilitySpell extends Command {
         }
     }
 
+    @Override
+    public SpellType getSpellType() {
+        return SpellType.INVISIBILITY;
+    }
+
     @Override
     public String toString() {
         return "消失咒语";
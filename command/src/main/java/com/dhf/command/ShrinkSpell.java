@@ -28,6 +28,11 @@ public class ShrinkSpell extends Command {
         undo();
     }
 
+    @Override
+    public SpellType getSpellType() {
+        return SpellType.SHRINK;
+    }
+
     @Override
     public String toString() {
         return "收缩咒语";
@@ -0,0 +1,368 @@
+package com.dhf.command;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * 巫师施放咒语的预写日志，每次施放、undo、redo之前先追加一条定长记录到内存映射的日志文件，
+ * 启动时通过{@link #replay}按顺序重新执行日志中的记录恢复目标的状态。
+ * <p>
+ * 记录的格式为：操作类型、咒语类型、目标执行前的size、目标执行前的visibility各1个字节，目标id4个字节，校验值4个字节。
+ * 写入映射区域的记录由后台线程调用force刷盘，一次刷盘覆盖这段时间内追加的所有记录（group commit）；
+ * syncCommit为true时追加记录会等到记录刷盘之后才返回，否则最多丢失最近flushIntervalMillis内的记录。
+ * 刷盘失败后之后的追加都会抛出UncheckedIOException，等待中的调用方也会收到这个异常，不会把没有落盘的记录当成已经提交。
+ * <p>
+ * undo和redo只记录操作类型，所以回放时巫师的历史深度需要和写入日志时一致。
+ * 目标通过id记录，写入日志的目标必须指定id，同一个日志中不同的目标对象不能使用相同的id，否则回放时无法区分
+ */
+public final class SpellJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpellJournal.class);
+
+    static final int RECORD_SIZE = 12;
+    /**
+     * 每次映射的区域能够保存的记录数
+     */
+    private static final int RECORDS_PER_REGION = 64 * 1024;
+    private static final int REGION_SIZE = RECORD_SIZE * RECORDS_PER_REGION;
+    private static final int CHECK_SEED = 0x57E11CA5;
+
+    private static final byte CAST = 1;
+    private static final byte UNDO = 2;
+    private static final byte REDO = 3;
+
+    private final FileChannel channel;
+    private final boolean syncCommit;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+    // 写入过日志或者回放过的目标，按id索引，用来发现重复的id
+    private final Map<Integer, Target> targets = new HashMap<>();
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    // 下一条记录在文件中的偏移量
+    private long position;
+    // 已经写满、还没有刷盘的区域
+    private List<MappedByteBuffer> retired = new ArrayList<>();
+    // 追加的记录数和已经刷盘的记录数
+    private long appended;
+    private long durable;
+    private int waiters;
+    private boolean closed;
+    // 刷盘失败的原因，不为null时日志不再可用
+    private IOException failure;
+
+    private SpellJournal(Path path, boolean syncCommit, long flushIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.syncCommit = syncCommit;
+        this.flushIntervalMillis = flushIntervalMillis;
+        // 上次写入时最后一条记录可能只写了一部分，从第一条无效的记录开始截断
+        this.position = validLength();
+        channel.truncate(position);
+        channel.force(true);
+        this.regionStart = position - position % REGION_SIZE;
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+        this.flusher = new Thread(this::flushLoop, "spell-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 打开日志文件，文件不存在时创建
+     *
+     * @param syncCommit          为true时追加记录后等待刷盘
+     * @param flushIntervalMillis 后台线程刷盘的间隔，syncCommit为true时有线程等待会立即刷盘
+     */
+    public static SpellJournal open(Path path, boolean syncCommit, long flushIntervalMillis) throws IOException {
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("flushIntervalMillis must be positive: " + flushIntervalMillis);
+        }
+        return new SpellJournal(path, syncCommit, flushIntervalMillis);
+    }
+
+    void appendCast(Command command, Target target) {
+        SpellType type = command.getSpellType();
+        if (null == type) {
+            throw new IllegalArgumentException(command + " cannot be journaled");
+        }
+        register(target);
+        append(CAST, (byte) (type.ordinal() + 1), code(target.getSize()), code(target.getVisibility()),
+                target.getId());
+    }
+
+    /**
+     * 记录id对应的目标，id没有指定或者已经属于另一个目标时抛出IllegalArgumentException
+     */
+    private synchronized void register(Target target) {
+        int id = target.getId();
+        if (Target.NO_ID == id) {
+            throw new IllegalArgumentException(target + " has no id and cannot be journaled");
+        }
+        Target registered = targets.putIfAbsent(id, target);
+        if (null != registered && registered != target) {
+            throw new IllegalArgumentException("target id " + id + " is already used by " + registered);
+        }
+    }
+
+    void appendUndo() {
+        append(UNDO, (byte) 0, (byte) 0, (byte) 0, 0);
+    }
+
+    void appendRedo() {
+        append(REDO, (byte) 0, (byte) 0, (byte) 0, 0);
+    }
+
+    private synchronized void append(byte op, byte spell, byte size, byte visibility, int targetId) {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        if (position == regionStart + REGION_SIZE) {
+            retired.add(region);
+            regionStart = position;
+            try {
+                region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int offset = (int) (position - regionStart);
+        region.put(offset, op);
+        region.put(offset + 1, spell);
+        region.put(offset + 2, size);
+        region.put(offset + 3, visibility);
+        region.putInt(offset + 4, targetId);
+        region.putInt(offset + 8, check(region.getLong(offset)));
+        position += RECORD_SIZE;
+        long sequence = ++appended;
+        if (syncCommit) {
+            awaitDurable(sequence);
+        } else if (sequence == durable + 1) {
+            // 第一条没有刷盘的记录，唤醒空闲的刷盘线程
+            notifyAll();
+        }
+    }
+
+    /**
+     * 等待已经追加的记录全部刷盘
+     */
+    public synchronized void sync() {
+        awaitDurable(appended);
+    }
+
+    /**
+     * 等待sequence之前的记录刷盘。关闭时刷盘线程会在退出前最后刷盘一次，所以关闭过程中也要等到记录落盘；
+     * 等待时被中断也继续等待，返回前恢复中断状态，否则调用方会把没有落盘的记录当成已经提交
+     */
+    private void awaitDurable(long sequence) {
+        boolean interrupted = false;
+        waiters++;
+        notifyAll();
+        try {
+            while (durable < sequence) {
+                checkFailure();
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            waiters--;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void checkFailure() {
+        if (null != failure) {
+            throw new UncheckedIOException("journal flush failed", failure);
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            fail(e.getCause());
+        } catch (RuntimeException | Error e) {
+            fail(new IOException(e));
+            throw e;
+        }
+    }
+
+    private synchronized void fail(IOException e) {
+        failure = e;
+        notifyAll();
+    }
+
+    private void flush() throws InterruptedException {
+        while (true) {
+            List<MappedByteBuffer> toForce;
+            MappedByteBuffer current;
+            long target;
+            synchronized (this) {
+                while (appended == durable && !closed) {
+                    wait();
+                }
+                if (appended == durable) {
+                    return;
+                }
+                // 没有线程等待时等一段时间，让这段时间内追加的记录一起刷盘
+                if (waiters == 0 && !closed) {
+                    wait(flushIntervalMillis);
+                }
+                target = appended;
+                current = region;
+                toForce = retired;
+                retired = new ArrayList<>();
+            }
+            for (MappedByteBuffer buffer : toForce) {
+                buffer.force();
+            }
+            current.force();
+            synchronized (this) {
+                durable = target;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 按顺序回放日志中的记录，施放的咒语和undo、redo都通过巫师重新执行，但不会再次写入日志
+     *
+     * @param targets 根据id查找目标
+     * @return 回放的记录数
+     */
+    public int replay(Wizard wizard, IntFunction<Target> targets) throws IOException {
+        long end;
+        synchronized (this) {
+            end = position;
+        }
+        int count = 0;
+        for (long start = 0; start < end; start += REGION_SIZE) {
+            int length = (int) Math.min(REGION_SIZE, end - start);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            for (int offset = 0; offset < length; offset += RECORD_SIZE) {
+                replay(buffer, offset, wizard, targets);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void replay(MappedByteBuffer buffer, int offset, Wizard wizard, IntFunction<Target> targets) {
+        byte op = buffer.get(offset);
+        if (UNDO == op) {
+            wizard.undo();
+            return;
+        }
+        if (REDO == op) {
+            wizard.redo();
+            return;
+        }
+        Command command = SpellType.values()[buffer.get(offset + 1) - 1].create();
+        int targetId = buffer.getInt(offset + 4);
+        Target target = targets.apply(targetId);
+        if (null == target) {
+            throw new IllegalStateException("unknown target id in journal: " + targetId);
+        }
+        register(target);
+        if (code(target.getSize()) != buffer.get(offset + 2)
+                || code(target.getVisibility()) != buffer.get(offset + 3)) {
+            LOGGER.warn("{} does not match the state recorded before {}", target, command);
+        }
+        wizard.cast(command, target);
+    }
+
+    /**
+     * 从文件开头查找第一条无效的记录，返回有效记录的总长度
+     */
+    private long validLength() throws IOException {
+        long size = channel.size();
+        long end = size - size % RECORD_SIZE;
+        for (long start = 0; start < end; start += REGION_SIZE) {
+            int length = (int) Math.min(REGION_SIZE, end - start);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            for (int offset = 0; offset < length; offset += RECORD_SIZE) {
+                if (!isValid(buffer, offset)) {
+                    return start + offset;
+                }
+            }
+        }
+        return end;
+    }
+
+    private static boolean isValid(MappedByteBuffer buffer, int offset) {
+        byte op = buffer.get(offset);
+        if (op < CAST || op > REDO) {
+            return false;
+        }
+        if (CAST == op) {
+            int spell = buffer.get(offset + 1);
+            if (spell < 1 || spell > SpellType.values().length
+                    || !isCode(buffer.get(offset + 2), Size.values().length)
+                    || !isCode(buffer.get(offset + 3), Visibility.values().length)) {
+                return false;
+            }
+        }
+        return buffer.getInt(offset + 8) == check(buffer.getLong(offset));
+    }
+
+    private static boolean isCode(byte code, int count) {
+        return code >= 0 && code <= count;
+    }
+
+    private static int check(long bits) {
+        int h = (int) (bits ^ (bits >>> 32)) * 0x9E3779B1;
+        return (h ^ (h >>> 16)) ^ CHECK_SEED;
+    }
+
+    /**
+     * 枚举保存为ordinal + 1，null保存为0
+     */
+    private static byte code(Enum<?> value) {
+        return (byte) (null == value ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * 刷盘后关闭日志
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (this) {
+            if (null != failure) {
+                throw failure;
+            }
+        }
+    }
+}
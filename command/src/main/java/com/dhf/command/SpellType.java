@@ -0,0 +1,21 @@
+package com.dhf.command;
+
+import java.util.function.Supplier;
+
+/**
+ * 咒语的类型，写入日志时用来记录命令，回放时通过类型重新创建命令
+ */
+public enum SpellType {
+    SHRINK(ShrinkSpell::new),
+    INVISIBILITY(InvisibilitySpell::new);
+
+    private final Supplier<Command> factory;
+
+    SpellType(Supplier<Command> factory) {
+        this.factory = factory;
+    }
+
+    public Command create() {
+        return factory.get();
+    }
+}
@@ -8,11 +8,38 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class Target {
     private static final Logger LOGGER = LoggerFactory.getLogger(Target.class);
+    /**
+     * 没有指定id的目标使用的id，这样的目标不能写入日志
+     */
+    public static final int NO_ID = 0;
+
+    /**
+     * 目标的id，写入日志时用来记录命令作用的目标，回放时通过它找回目标，所以需要由调用方指定并且在多次运行之间保持不变
+     */
+    private final int id;
 
     private Size size;
 
     private Visibility visibility;
 
+    protected Target() {
+        this.id = NO_ID;
+    }
+
+    /**
+     * @throws IllegalArgumentException id是{@link #NO_ID}时
+     */
+    protected Target(int id) {
+        if (NO_ID == id) {
+            throw new IllegalArgumentException("target id must not be " + NO_ID);
+        }
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
     public Size getSize() {
         return size;
     }
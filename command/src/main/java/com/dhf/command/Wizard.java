@@ -3,27 +3,48 @@ package com.dhf.command;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Deque;
-import java.util.LinkedList;
-
 /**
  * 巫师能够发出咒语，也就是发出命令
  */
 public class Wizard {
     private static final Logger LOGGER = LoggerFactory.getLogger(Wizard.class);
+    /**
+     * 默认最多保存的历史命令数
+     */
+    public static final int DEFAULT_HISTORY_DEPTH = 100;
 
-    // 保存上一次执行的命令，当需要undo时从该队列获取上一次命令并调用命令的undo方法
-    private Deque<Command> undoStack = new LinkedList<>();
+    // 保存上一次执行的命令，当需要undo时从该队列获取上一次命令并调用命令的undo方法，超过深度时淘汰最早的命令
+    private final CommandHistory undoStack;
     // 保存上一次执行undo方法的命令，当需要redo时从该队列获取上一次undo的命令并调用命令的redo方法
-    private Deque<Command> redoStack = new LinkedList<>();
+    private final CommandHistory redoStack;
+    private SpellJournal journal;
+
+    public Wizard() {
+        this(DEFAULT_HISTORY_DEPTH);
+    }
 
     /**
-     * 施放咒语
+     * @param historyDepth 最多能够undo的命令数
+     */
+    public Wizard(int historyDepth) {
+        this.undoStack = new CommandHistory(historyDepth);
+        this.redoStack = new CommandHistory(historyDepth);
+    }
+
+    /**
+     * 施放咒语，设置了日志时先写入日志再执行命令
      */
     public void castSpell(Command command, Target target) {
         LOGGER.info("{} casts {} at {}", this, command, target);
+        if (journal != null) {
+            journal.appendCast(command, target);
+        }
+        cast(command, target);
+    }
+
+    void cast(Command command, Target target) {
         command.execute(target);
-        undoStack.offerLast(command);
+        undoStack.push(command);
     }
 
     /**
@@ -31,11 +52,21 @@ public class Wizard {
      */
     public void undoLastSpell() {
         if (!undoStack.isEmpty()) {
-            Command previousSpell = undoStack.pollLast();
-            redoStack.offerLast(previousSpell);
-            LOGGER.info("{} undoes {}", this, previousSpell);
+            LOGGER.info("{} undoes {}", this, undoStack.peek());
+            if (journal != null) {
+                journal.appendUndo();
+            }
+            undo();
+        }
+    }
+
+    Command undo() {
+        Command previousSpell = undoStack.pop();
+        if (previousSpell != null) {
+            redoStack.push(previousSpell);
             previousSpell.undo();
         }
+        return previousSpell;
     }
 
     /**
@@ -43,11 +74,36 @@ public class Wizard {
      */
     public void redoLastSpell() {
         if (!redoStack.isEmpty()) {
-            Command previousSpell = redoStack.pollLast();
-            undoStack.offerLast(previousSpell);
-            LOGGER.info("{} redoes {}", this, previousSpell);
+            LOGGER.info("{} redoes {}", this, redoStack.peek());
+            if (journal != null) {
+                journal.appendRedo();
+            }
+            redo();
+        }
+    }
+
+    Command redo() {
+        Command previousSpell = redoStack.pop();
+        if (previousSpell != null) {
+            undoStack.push(previousSpell);
             previousSpell.redo();
         }
+        return previousSpell;
+    }
+
+    /**
+     * 设置预写日志，之后施放的咒语和undo、redo都会先写入日志，为null时不写日志
+     */
+    public void setJournal(SpellJournal journal) {
+        this.journal = journal;
+    }
+
+    public int getUndoDepth() {
+        return undoStack.size();
+    }
+
+    public int getRedoDepth() {
+        return redoStack.size();
     }
 
     @Override
@@ -0,0 +1,103 @@
+package com.dhf.command;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CommandHistoryTest {
+
+    private static final int CASTS = 2000000;
+
+    @Test
+    public void pushEvictsOldestWhenFull() {
+        CommandHistory history = new CommandHistory(3);
+        Command[] commands = new Command[5];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new ShrinkSpell();
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(history.push(commands[i]));
+        }
+        assertSame(commands[0], history.push(commands[3]));
+        assertSame(commands[1], history.push(commands[4]));
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.capacity());
+        assertSame(commands[4], history.pop());
+        assertSame(commands[3], history.pop());
+        assertSame(commands[2], history.pop());
+        assertNull(history.pop());
+        assertTrue(history.isEmpty());
+    }
+
+    @Test
+    public void clearEmptiesHistory() {
+        CommandHistory history = new CommandHistory(2);
+        history.push(new ShrinkSpell());
+        history.push(new InvisibilitySpell());
+
+        history.clear();
+
+        assertTrue(history.isEmpty());
+        assertNull(history.pop());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new CommandHistory(0);
+    }
+
+    @Test
+    public void undoDepthStaysBoundedAfterMillionsOfCasts() {
+        Wizard wizard = new Wizard(100);
+        Goblin goblin = new Goblin();
+        Command shrink = new ShrinkSpell();
+        Command invisibility = new InvisibilitySpell();
+        for (int i = 0; i < CASTS; i++) {
+            wizard.castSpell((i & 1) == 0 ? shrink : invisibility, goblin);
+        }
+        assertEquals(100, wizard.getUndoDepth());
+
+        for (int i = 0; i < CASTS; i++) {
+            wizard.castSpell(new ShrinkSpell(), goblin);
+        }
+        assertEquals(100, wizard.getUndoDepth());
+
+        for (int i = 0; i < 150; i++) {
+            wizard.undoLastSpell();
+        }
+        assertEquals(0, wizard.getUndoDepth());
+        assertEquals(100, wizard.getRedoDepth());
+    }
+
+    @Test
+    public void retainedHeapDoesNotGrowWithCasts() {
+        Wizard wizard = new Wizard(100);
+        Goblin goblin = new Goblin();
+        for (int i = 0; i < CASTS / 10; i++) {
+            wizard.castSpell(new ShrinkSpell(), goblin);
+        }
+        long before = usedHeapAfterGc();
+
+        for (int i = 0; i < CASTS; i++) {
+            wizard.castSpell(new ShrinkSpell(), goblin);
+        }
+        long after = usedHeapAfterGc();
+
+        // 无界的历史会保留两百万个命令，至少占用几十MB
+        assertTrue("heap grew by " + (after - before) + " bytes", after - before < 8 * 1024 * 1024);
+        assertEquals(100, wizard.getUndoDepth());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
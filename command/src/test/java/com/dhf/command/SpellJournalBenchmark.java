@@ -0,0 +1,95 @@
+package com.dhf.command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 写日志时每秒能施放的咒语数。syncCommit为true时每次施放都等到记录刷盘，多个线程同时等待时一次刷盘提交所有线程的记录；
+ * 为false时由后台线程每flushIntervalMillis批量刷盘一次。"none"表示不写日志作为对照。运行方式：
+ * <pre>
+ * mvn -pl command -am test-compile
+ * mvn -pl command exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main SpellJournalBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SpellJournalBenchmark {
+
+    @Param({"none", "sync", "async"})
+    private String commit;
+
+    @Param({"1", "10"})
+    private long flushIntervalMillis;
+
+    private Path path;
+    private SpellJournal journal;
+    private final AtomicInteger nextTargetId = new AtomicInteger();
+
+    /**
+     * 每次迭代使用新的日志文件，文件不会在整个测试过程中一直增长
+     */
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        path = Files.createTempFile("spell", ".journal");
+        journal = "none".equals(commit) ? null : SpellJournal.open(path, "sync".equals(commit), flushIntervalMillis);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        if (null != journal) {
+            journal.close();
+        }
+        Files.delete(path);
+    }
+
+    /**
+     * 每个线程有自己的巫师和哥布林
+     */
+    @State(Scope.Thread)
+    public static class Caster {
+        private Wizard wizard;
+        private Goblin goblin;
+
+        @Setup(Level.Iteration)
+        public void setUp(SpellJournalBenchmark benchmark) {
+            wizard = new Wizard();
+            wizard.setJournal(benchmark.journal);
+            goblin = new Goblin(benchmark.nextTargetId.incrementAndGet());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void castOneThread(Caster caster) {
+        caster.wizard.castSpell(new ShrinkSpell(), caster.goblin);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void castEightThreads(Caster caster) {
+        caster.wizard.castSpell(new ShrinkSpell(), caster.goblin);
+    }
+}
@@ -0,0 +1,230 @@
+package com.dhf.command;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SpellJournalTest {
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile("spell", ".journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test(timeout = 30000)
+    public void replayRestoresTheJournaledState() throws IOException {
+        Goblin goblin = new Goblin(1);
+        Goblin other = new Goblin(2);
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            wizard.castSpell(new ShrinkSpell(), goblin);
+            wizard.castSpell(new InvisibilitySpell(), goblin);
+            wizard.castSpell(new InvisibilitySpell(), other);
+            wizard.undoLastSpell();
+            wizard.undoLastSpell();
+            wizard.redoLastSpell();
+        }
+
+        Goblin restored = new Goblin(1);
+        Goblin restoredOther = new Goblin(2);
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Wizard wizard = new Wizard();
+            assertEquals(6, journal.replay(wizard, targets(restored, restoredOther)));
+
+            assertEquals(goblin.getSize(), restored.getSize());
+            assertEquals(goblin.getVisibility(), restored.getVisibility());
+            assertEquals(other.getVisibility(), restoredOther.getVisibility());
+            assertEquals(2, wizard.getUndoDepth());
+            assertEquals(1, wizard.getRedoDepth());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void tornTailIsTruncatedOnOpen() throws IOException {
+        Goblin goblin = new Goblin(1);
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            for (int i = 0; i < 10; i++) {
+                wizard.castSpell(i % 2 == 0 ? new ShrinkSpell() : new InvisibilitySpell(), goblin);
+            }
+        }
+        // 第11条记录只写了前半部分，校验值对不上
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer first = ByteBuffer.allocate(SpellJournal.RECORD_SIZE / 2);
+            channel.read(first, 0);
+            first.flip();
+            channel.write(first, 10L * SpellJournal.RECORD_SIZE);
+        }
+
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            assertEquals(10, journal.replay(new Wizard(), targets(new Goblin(1))));
+
+            // 新的记录从截断的位置继续写
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            wizard.castSpell(new ShrinkSpell(), new Goblin(2));
+        }
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            assertEquals(11, journal.replay(new Wizard(), targets(new Goblin(1), new Goblin(2))));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void corruptRecordDropsItAndEverythingAfterIt() throws IOException {
+        try (SpellJournal journal = SpellJournal.open(path, false, 10)) {
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            Goblin goblin = new Goblin(1);
+            for (int i = 0; i < 10; i++) {
+                wizard.castSpell(new ShrinkSpell(), goblin);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // 改掉第8条记录的目标id
+            channel.write(ByteBuffer.allocate(4).putInt(0, 99), 7L * SpellJournal.RECORD_SIZE + 4);
+        }
+
+        try (SpellJournal journal = SpellJournal.open(path, false, 10)) {
+            assertEquals(7, journal.replay(new Wizard(), targets(new Goblin(1))));
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void recordsSpanningSeveralRegionsReplay() throws IOException {
+        int casts = 70000;
+        try (SpellJournal journal = SpellJournal.open(path, false, 10)) {
+            Wizard wizard = new Wizard(1);
+            wizard.setJournal(journal);
+            Goblin goblin = new Goblin(1);
+            for (int i = 0; i < casts; i++) {
+                wizard.castSpell(new ShrinkSpell(), goblin);
+            }
+        }
+
+        try (SpellJournal journal = SpellJournal.open(path, false, 10)) {
+            assertEquals(casts, journal.replay(new Wizard(1), targets(new Goblin(1))));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void syncFlushesWithoutWaitingForTheInterval() throws IOException {
+        // 刷盘间隔很长，有线程等待时刷盘线程不等间隔结束
+        try (SpellJournal journal = SpellJournal.open(path, false, TimeUnit.HOURS.toMillis(1))) {
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            wizard.castSpell(new ShrinkSpell(), new Goblin(1));
+            journal.sync();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void concurrentSyncCommitsAreAllDurable() throws Exception {
+        int threads = 8;
+        int castsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try (SpellJournal journal = SpellJournal.open(path, true, TimeUnit.HOURS.toMillis(1))) {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                Goblin goblin = new Goblin(t + 1);
+                futures[t] = executor.submit(() -> {
+                    Wizard wizard = new Wizard();
+                    wizard.setJournal(journal);
+                    start.await();
+                    for (int i = 0; i < castsPerThread; i++) {
+                        wizard.castSpell(new InvisibilitySpell(), goblin);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<Integer, Target> restored = new HashMap<>();
+        for (int t = 0; t < threads; t++) {
+            restored.put(t + 1, new Goblin(t + 1));
+        }
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            assertEquals(threads * castsPerThread, journal.replay(new Wizard(), restored::get));
+        }
+    }
+
+    @Test
+    public void targetWithoutIdCannotBeJournaled() throws IOException {
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            Goblin goblin = new Goblin();
+            try {
+                wizard.castSpell(new ShrinkSpell(), goblin);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertEquals("Goblin has no id and cannot be journaled", expected.getMessage());
+            }
+            // 写入日志失败时咒语没有施放
+            assertEquals(Size.NORMAL, goblin.getSize());
+        }
+    }
+
+    @Test
+    public void duplicateTargetIdIsRejected() throws IOException {
+        try (SpellJournal journal = SpellJournal.open(path, true, 10)) {
+            Wizard wizard = new Wizard();
+            wizard.setJournal(journal);
+            Goblin goblin = new Goblin(1);
+            wizard.castSpell(new ShrinkSpell(), goblin);
+            wizard.castSpell(new InvisibilitySpell(), goblin);
+            try {
+                wizard.castSpell(new ShrinkSpell(), new Goblin(1));
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertEquals("target id 1 is already used by Goblin", expected.getMessage());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noIdIsNotAnExplicitId() {
+        new Goblin(Target.NO_ID);
+    }
+
+    private static IntFunction<Target> targets(Target... targets) {
+        Map<Integer, Target> byId = new HashMap<>();
+        for (Target target : targets) {
+            byId.put(target.getId(), target);
+        }
+        return byId::get;
+    }
+}
@@ -0,0 +1,198 @@
+package com.dhf.common;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 带缓冲的控制台输出，调用方只把文本放入队列，由后台线程批量取出后一次性写到控制台并flush，
+ * 调用方不会因为System.out的同步和频繁flush被阻塞。
+ * <p>
+ * 队列是有界的，队列满时调用方阻塞直到后台线程取走内容，所以输出速度超过控制台时内存不会无限增长。
+ * close之后后台线程退出，之后的输出直接同步写到控制台。后台线程意外退出（被中断或者写控制台时抛出异常）后，
+ * 调用方不会一直等待，队列中剩余的内容和之后的输出由调用方直接写到控制台
+ */
+public class BufferedConsoleSink implements OutputSink {
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 1024;
+    private static final Object CLOSE = new Object();
+    /**
+     * 等待队列空位和flush完成时，每隔这么久检查一次后台线程是否还在运行
+     */
+    private static final long CHECK_MILLIS = 10;
+
+    private final PrintStream out;
+    private final BlockingQueue<Object> queue;
+    private final Thread writer;
+    /**
+     * 输出和flush持有读锁，close持有写锁，保证close之后不会再有内容放入队列
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public BufferedConsoleSink() {
+        this(System.out, DEFAULT_CAPACITY);
+    }
+
+    public BufferedConsoleSink(PrintStream out, int capacity) {
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "buffered-console-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void print(String text) {
+        lock.readLock().lock();
+        try {
+            if (!closed && enqueue(text)) {
+                // 后台线程可能在放入之前就已经退出了
+                drainQueue();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 已经关闭、后台线程已经退出或者等待时被中断，直接写到控制台
+        drainQueue();
+        synchronized (out) {
+            out.print(text);
+            out.flush();
+        }
+    }
+
+    /**
+     * 在队列中放入一个标记，后台线程写到标记时说明之前的内容都已经输出
+     */
+    @Override
+    public void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (!enqueue(written)) {
+                drainQueue();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            while (!written.await(CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    drainQueue();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 放入队列，队列满时等待空位；后台线程已经退出、队列不会再有空位时返回false
+     */
+    private boolean enqueue(Object item) throws InterruptedException {
+        while (!queue.offer(item, CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (!writer.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 后台线程退出后由调用方把队列中剩余的内容写到控制台，后台线程还在运行时什么都不做
+     */
+    private void drainQueue() {
+        if (writer.isAlive()) {
+            return;
+        }
+        List<Object> remaining = new ArrayList<>();
+        synchronized (out) {
+            queue.drainTo(remaining);
+            StringBuilder text = new StringBuilder();
+            for (Object item : remaining) {
+                if (item instanceof String) {
+                    text.append((String) item);
+                } else if (item instanceof CountDownLatch) {
+                    write(text);
+                    ((CountDownLatch) item).countDown();
+                }
+            }
+            write(text);
+        }
+    }
+
+    /**
+     * 输出队列中剩余的内容后停止后台线程
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (enqueue(CLOSE)) {
+                writer.join();
+            }
+            drainQueue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Object item : batch) {
+                if (item == CLOSE) {
+                    write(text);
+                    return;
+                } else if (item instanceof CountDownLatch) {
+                    write(text);
+                    ((CountDownLatch) item).countDown();
+                } else {
+                    text.append((String) item);
+                }
+            }
+            write(text);
+            batch.clear();
+        }
+    }
+
+    private void write(StringBuilder text) {
+        if (text.length() > 0) {
+            synchronized (out) {
+                out.print(text);
+                out.flush();
+            }
+            text.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.dhf.common;
+
+/**
+ * 各个例子共用的输出入口，默认输出到{@link BufferedConsoleSink}，测试时可以替换成{@link MemorySink}。
+ * 输出是异步的，需要和日志等其他输出保持顺序时先调用{@link #flush()}，JVM退出前会自动flush
+ */
+public final class Console {
+    private static volatile OutputSink sink = new BufferedConsoleSink();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Console::flush, "console-flush"));
+    }
+
+    private Console() {
+    }
+
+    public static void print(Object text) {
+        sink.print(String.valueOf(text));
+    }
+
+    public static void println(Object text) {
+        sink.print(text + System.lineSeparator());
+    }
+
+    public static void println() {
+        sink.print(System.lineSeparator());
+    }
+
+    public static void flush() {
+        sink.flush();
+    }
+
+    public static OutputSink getSink() {
+        return sink;
+    }
+
+    /**
+     * 替换输出目的地，原来的输出会被flush并关闭
+     */
+    public static void setSink(OutputSink newSink) {
+        if (newSink == null) {
+            throw new IllegalArgumentException("sink must not be null");
+        }
+        OutputSink old = sink;
+        sink = newSink;
+        old.close();
+    }
+}
@@ -0,0 +1,203 @@
+package com.dhf.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于环形缓冲区的事件日志，代替热点路径上同步的LOGGER.info调用。
+ * 缓冲区中的事件槽在创建时就分配好，写入事件只需要通过CAS占一个槽并填入事件类型和参数，不加锁也不分配对象；
+ * 后台线程按顺序取出事件，再交给事件类型对应的Logger格式化输出。
+ * 缓冲区满时新的事件会被丢弃并计数，不会阻塞调用方；关闭后写入的事件同样被丢弃并计数，
+ * 每个事件要么被输出，要么计入{@link #getDroppedCount()}。
+ * 事件的参数只保存引用或基本类型，被引用的对象在事件输出之前不应该再被修改。
+ * 没有事件时后台线程的等待时间逐渐加长，空闲时几乎不占用CPU，{@link #flush()}会立即唤醒后台线程
+ */
+public class EventJournal implements AutoCloseable {
+    private static final long PARK_NANOS = 100_000L;
+    /**
+     * 空闲时后台线程最长的等待时间
+     */
+    private static final long MAX_PARK_NANOS = 10_000_000L;
+    /**
+     * 后台线程退出前把claimed设为这个值，之后占槽的CAS都会失败，缓冲区看起来总是满的，新的事件都被丢弃
+     */
+    private static final long SEALED = Long.MAX_VALUE / 2;
+
+    private final Slot[] slots;
+    private final int mask;
+    /**
+     * 每个槽最后一次写入完成的序号，后台线程通过它判断槽中的事件是否可以读取
+     */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread drainer;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity 缓冲区大小，会向上取整到2的幂
+     */
+    public EventJournal(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1L);
+        }
+        this.drainer = new Thread(this::drain, "event-journal-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    public static EventJournal getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    public void emit(EventType type) {
+        write(type, 0, null, null, false, 0L);
+    }
+
+    public void emit(EventType type, Object arg) {
+        write(type, 1, arg, null, false, 0L);
+    }
+
+    public void emit(EventType type, Object arg1, Object arg2) {
+        write(type, 2, arg1, arg2, false, 0L);
+    }
+
+    public void emit(EventType type, long arg) {
+        write(type, 0, null, null, true, arg);
+    }
+
+    private void write(EventType type, int refCount, Object ref1, Object ref2, boolean hasNumber, long number) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        slot.type = type;
+        slot.refCount = refCount;
+        slot.ref1 = ref1;
+        slot.ref2 = ref2;
+        slot.hasNumber = hasNumber;
+        slot.number = number;
+        published.lazySet(index, sequence);
+    }
+
+    /**
+     * 等待调用之前写入的事件全部输出，日志关闭后直接返回
+     */
+    public void flush() {
+        long target = claimed.get();
+        LockSupport.unpark(drainer);
+        while (consumed.get() < target && drainer.isAlive()) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * 输出已经写入的事件后停止后台线程，之后写入的事件都会被丢弃
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 因为缓冲区满或者日志已经关闭被丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        long next = 0;
+        long parkNanos = PARK_NANOS;
+        while (true) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                // 关闭后只有已经占用但还没写完的槽需要等待。通过CAS封住claimed再退出，
+                // 检查closed之后才占槽的调用方会发现缓冲区已满并计入丢弃数，不会在后台线程退出后写入没人读取的槽
+                if (closed && claimed.get() == next && claimed.compareAndSet(next, SEALED)) {
+                    return;
+                }
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+                continue;
+            }
+            parkNanos = PARK_NANOS;
+            Slot slot = slots[index];
+            EventType type = slot.type;
+            Object[] args = slot.args();
+            slot.clear();
+            consumed.lazySet(++next);
+            try {
+                type.getLogger().info(type.getFormat(), args);
+            } catch (RuntimeException e) {
+                // 单个事件格式化失败不能影响后续事件的输出
+            }
+        }
+    }
+
+    private static final class Slot {
+        EventType type;
+        int refCount;
+        Object ref1;
+        Object ref2;
+        boolean hasNumber;
+        long number;
+
+        Object[] args() {
+            Object[] args = new Object[refCount + (hasNumber ? 1 : 0)];
+            if (refCount > 0) {
+                args[0] = ref1;
+            }
+            if (refCount > 1) {
+                args[1] = ref2;
+            }
+            if (hasNumber) {
+                args[refCount] = number;
+            }
+            return args;
+        }
+
+        void clear() {
+            type = null;
+            ref1 = null;
+            ref2 = null;
+        }
+    }
+
+    private static final class Holder {
+        private static final EventJournal DEFAULT = new EventJournal(1 << 16);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(DEFAULT::close, "event-journal-close"));
+        }
+    }
+}
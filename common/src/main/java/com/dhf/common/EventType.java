@@ -0,0 +1,24 @@
+package com.dhf.common;
+
+import org.slf4j.Logger;
+
+/**
+ * 事件类型，保存事件被格式化时使用的日志对象和slf4j格式的消息模板，通常作为静态常量定义在产生事件的类中
+ */
+public final class EventType {
+    private final Logger logger;
+    private final String format;
+
+    public EventType(Logger logger, String format) {
+        this.logger = logger;
+        this.format = format;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+}
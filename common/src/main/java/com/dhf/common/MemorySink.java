@@ -0,0 +1,25 @@
+package com.dhf.common;
+
+/**
+ * 保存在内存中的输出，方便测试时检查输出的内容
+ */
+public class MemorySink implements OutputSink {
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Override
+    public synchronized void print(String text) {
+        buffer.append(text);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    public synchronized String getOutput() {
+        return buffer.toString();
+    }
+
+    public synchronized void clear() {
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,24 @@
+package com.dhf.common;
+
+/**
+ * 输出目的地，各个例子通过{@link Console}把要打印的内容写到当前的OutputSink
+ */
+public interface OutputSink extends AutoCloseable {
+    /**
+     * 输出文本，不换行
+     */
+    void print(String text);
+
+    /**
+     * 等待已经输出的内容全部写到目的地
+     */
+    void flush();
+
+    /**
+     * 释放输出占用的资源，默认只flush
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dhf.common;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BufferedConsoleSinkTest {
+
+    @Test(timeout = 10000)
+    public void flushWritesEverythingInOrder() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BufferedConsoleSink sink = new BufferedConsoleSink(new PrintStream(bytes, true), 4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String prefix = String.valueOf((char) ('a' + t));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    sink.print(prefix + i + "\n");
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        sink.flush();
+
+        String[] lines = bytes.toString().split("\n");
+        assertEquals(4000, lines.length);
+        // 每个线程自己的输出保持顺序
+        int[] next = new int[4];
+        for (String line : lines) {
+            int thread = line.charAt(0) - 'a';
+            assertEquals(line, next[thread]++, Integer.parseInt(line.substring(1)));
+        }
+        sink.close();
+    }
+
+    @Test(timeout = 10000)
+    public void printAfterCloseWritesDirectly() throws UnsupportedEncodingException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BufferedConsoleSink sink = new BufferedConsoleSink(new PrintStream(bytes, true, "UTF-8"), 16);
+        sink.print("关闭前");
+        sink.close();
+        assertEquals("关闭前", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+        sink.print("，关闭后");
+        sink.flush();
+        sink.close();
+        assertEquals("关闭前，关闭后", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(timeout = 10000)
+    public void flushReturnsAfterWriterDies() {
+        FailingOnceStream stream = new FailingOnceStream();
+        BufferedConsoleSink sink = new BufferedConsoleSink(new PrintStream(stream, true), 2);
+        // 后台线程写第一段内容时抛出异常并退出
+        sink.print("丢失");
+        sink.flush();
+
+        for (int i = 0; i < 10; i++) {
+            sink.print(i + ",");
+        }
+        sink.flush();
+        sink.close();
+
+        assertEquals("0,1,2,3,4,5,6,7,8,9,", stream.written.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void closeFlushesQueuedOutput() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BufferedConsoleSink sink = new BufferedConsoleSink(new PrintStream(bytes, true), 1024);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sink.print(i + " ");
+            expected.append(i).append(' ');
+        }
+        sink.close();
+
+        assertEquals(expected.toString(), bytes.toString());
+        assertTrue(sink instanceof OutputSink);
+    }
+
+    /**
+     * 第一次写入时抛出异常，之后正常写入
+     */
+    private static final class FailingOnceStream extends OutputStream {
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private boolean failed;
+
+        @Override
+        public synchronized void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (!failed) {
+                failed = true;
+                throw new IllegalStateException("控制台不可用");
+            }
+            written.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.dhf.common;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ConsoleTest {
+
+    @Test
+    public void outputGoesToCurrentSink() {
+        OutputSink original = Console.getSink();
+        MemorySink memory = new MemorySink();
+        Console.setSink(memory);
+        try {
+            Console.print("火鸡");
+            Console.println("飞");
+            Console.println(3);
+            Console.println();
+            Console.flush();
+
+            assertSame(memory, Console.getSink());
+            String separator = System.lineSeparator();
+            assertEquals("火鸡飞" + separator + "3" + separator + separator, memory.getOutput());
+
+            memory.clear();
+            Console.print("嘎嘎");
+            assertEquals("嘎嘎", memory.getOutput());
+        } finally {
+            // 原来的输出已经被关闭，换一个新的控制台输出给其他测试使用
+            Console.setSink(original instanceof BufferedConsoleSink ? new BufferedConsoleSink() : original);
+        }
+    }
+
+    @Test
+    public void replacedSinkIsClosed() {
+        OutputSink original = Console.getSink();
+        CountingSink replaced = new CountingSink();
+        Console.setSink(replaced);
+        Console.setSink(new MemorySink());
+
+        assertEquals(1, replaced.closes);
+        Console.setSink(original instanceof BufferedConsoleSink ? new BufferedConsoleSink() : original);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullSinkIsRejected() {
+        Console.setSink(null);
+    }
+
+    private static final class CountingSink extends MemorySink {
+        int closes;
+
+        @Override
+        public void close() {
+            closes++;
+        }
+    }
+}
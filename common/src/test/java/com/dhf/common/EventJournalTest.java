@@ -0,0 +1,207 @@
+package com.dhf.common;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventJournalTest {
+
+    private Logger logger;
+    private RecordingAppender appender;
+
+    @Before
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logger = context.getLogger("com.dhf.common.EventJournalTest.events");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        appender = new RecordingAppender();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @After
+    public void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test(timeout = 10000)
+    public void flushOutputsEventsInOrder() {
+        EventType single = new EventType(logger, "事件{}");
+        EventType pair = new EventType(logger, "{}和{}");
+        EventType none = new EventType(logger, "没有参数");
+        try (EventJournal journal = new EventJournal(256)) {
+            for (int i = 0; i < 100; i++) {
+                journal.emit(single, (long) i);
+            }
+            journal.emit(pair, "鸭子", "火鸡");
+            journal.emit(single, (Object) "对象");
+            journal.emit(none);
+            journal.flush();
+
+            List<String> messages = appender.messages();
+            assertEquals(103, messages.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals("事件" + i, messages.get(i));
+            }
+            assertEquals("鸭子和火鸡", messages.get(100));
+            assertEquals("事件对象", messages.get(101));
+            assertEquals("没有参数", messages.get(102));
+            assertEquals(0, journal.getDroppedCount());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void fullBufferDropsAndCountsEvents() throws InterruptedException {
+        EventType type = new EventType(logger, "事件{}");
+        try (EventJournal journal = new EventJournal(8)) {
+            appender.block();
+            journal.emit(type, 0L);
+            // 后台线程取出第一个事件后停在输出上，缓冲区的8个槽都空了出来
+            appender.awaitBlocked();
+            for (int i = 1; i <= 11; i++) {
+                journal.emit(type, (long) i);
+            }
+            assertEquals(3, journal.getDroppedCount());
+
+            appender.unblock();
+            journal.flush();
+            assertEquals(9, appender.messages().size());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void closeOutputsPendingEventsAndDropsLaterOnes() {
+        EventType type = new EventType(logger, "事件{}");
+        EventJournal journal = new EventJournal(64);
+        for (int i = 0; i < 10; i++) {
+            journal.emit(type, (long) i);
+        }
+        journal.close();
+        assertEquals(10, appender.messages().size());
+
+        journal.emit(type, 10L);
+        journal.flush();
+        journal.close();
+        assertEquals(10, appender.messages().size());
+        assertEquals(1, journal.getDroppedCount());
+    }
+
+    @Test(timeout = 60000)
+    public void everyEventIsOutputOrDroppedWhenCloseRacesWithProducers() throws InterruptedException {
+        EventType type = new EventType(logger, "事件{}");
+        for (int round = 0; round < 200; round++) {
+            appender.clear();
+            EventJournal journal = new EventJournal(1024);
+            AtomicLong emitted = new AtomicLong();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                producers.add(new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 2000; i++) {
+                        journal.emit(type, (long) i);
+                        emitted.incrementAndGet();
+                    }
+                }));
+            }
+            for (Thread producer : producers) {
+                producer.start();
+            }
+            started.await();
+            journal.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals("round " + round, emitted.get(), appender.messages().size() + journal.getDroppedCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new EventJournal(0);
+    }
+
+    @Test(timeout = 10000)
+    public void capacityIsRoundedUpToPowerOfTwo() throws InterruptedException {
+        EventType type = new EventType(logger, "事件{}");
+        try (EventJournal journal = new EventJournal(5)) {
+            appender.block();
+            journal.emit(type, 0L);
+            appender.awaitBlocked();
+            for (int i = 1; i <= 9; i++) {
+                journal.emit(type, (long) i);
+            }
+            assertEquals(1, journal.getDroppedCount());
+            appender.unblock();
+        }
+        assertEquals(9, appender.messages().size());
+    }
+
+    /**
+     * 保存格式化后的消息，block()之后输出下一个事件时停住，直到unblock()
+     */
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+        private final List<String> messages = new ArrayList<>();
+        private volatile boolean blockNext;
+        private volatile CountDownLatch entered;
+        private volatile CountDownLatch release;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (blockNext) {
+                blockNext = false;
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (messages) {
+                messages.add(event.getFormattedMessage());
+            }
+        }
+
+        void block() {
+            entered = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+            blockNext = true;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            entered.await();
+        }
+
+        void unblock() {
+            release.countDown();
+        }
+
+        List<String> messages() {
+            synchronized (messages) {
+                return new ArrayList<>(messages);
+            }
+        }
+
+        void clear() {
+            synchronized (messages) {
+                messages.clear();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.dhf;
 
+import com.dhf.common.Console;
 import com.dhf.composite.LetterComposite;
 import com.dhf.composite.Messenger;
 import org.slf4j.Logger;
@@ -14,10 +15,12 @@ public class Application {
         // Messenger对象只是方便测试的工具类，默认创建了一个Sentence对象并添加了若干个Word对象
         LetterComposite orcMessage = new Messenger().messageFromOrcs();
         orcMessage.print();
+        Console.flush();
 
         LOGGER.info("Message from the elves: ");
 
         LetterComposite elfMessage = new Messenger().messageFromElves();
         elfMessage.print();
+        Console.flush();
     }
 }
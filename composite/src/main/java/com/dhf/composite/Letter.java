@@ -1,5 +1,7 @@
 package com.dhf.composite;
 
+import com.dhf.common.Console;
+
 /**
  * 字母，打印行为就是打印自己，字母也继承自LetterComposite，使其具有成为组合的能力，
  * 但实际上一个字母不可再分割
@@ -18,6 +20,6 @@ public class Letter extends LetterComposite {
 
     @Override
     protected void printThisBefore() {
-        System.out.print(c);
+        Console.print(c);
     }
 }
@@ -1,5 +1,7 @@
 package com.dhf.composite;
 
+import com.dhf.common.Console;
+
 import java.util.List;
 
 /**
@@ -18,6 +20,6 @@ public class Sentence extends LetterComposite {
 
     @Override
     protected void printThisAfter() {
-        System.out.print(".\n");
+        Console.print(".\n");
     }
 }
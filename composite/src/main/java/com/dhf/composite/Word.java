@@ -1,5 +1,7 @@
 package com.dhf.composite;
 
+import com.dhf.common.Console;
+
 import java.util.List;
 
 /**
@@ -18,6 +20,6 @@ public class Word extends LetterComposite {
 
     @Override
     protected void printThisBefore() {
-        System.out.print(" ");
+        Console.print(" ");
     }
 }
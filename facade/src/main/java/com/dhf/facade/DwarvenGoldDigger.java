@@ -1,5 +1,7 @@
 package com.dhf.facade;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,10 +10,11 @@ import org.slf4j.LoggerFactory;
  */
 public class DwarvenGoldDigger extends DwarvenMineWorker {
     private static final Logger LOGGER = LoggerFactory.getLogger(DwarvenGoldDigger.class);
+    private static final EventType WORK = new EventType(LOGGER, "{} digs for gold.");
 
     @Override
     public void work() {
-        LOGGER.info("{} digs for gold.", name());
+        EventJournal.getDefault().emit(WORK, name());
     }
 
     @Override
@@ -1,5 +1,7 @@
 package com.dhf.facade;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,21 +10,25 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class DwarvenMineWorker {
     private static final Logger LOGGER = LoggerFactory.getLogger(DwarvenMineWorker.class);
+    private static final EventType GO_TO_SLEEP = new EventType(LOGGER, "{} goes to sleep.");
+    private static final EventType WAKE_UP = new EventType(LOGGER, "{} wakes up.");
+    private static final EventType GO_HOME = new EventType(LOGGER, "{} goes home.");
+    private static final EventType GO_TO_MINE = new EventType(LOGGER, "{} goes to the mine.");
 
     public void goToSleep() {
-        LOGGER.info("{} goes to sleep.", name());
+        EventJournal.getDefault().emit(GO_TO_SLEEP, name());
     }
 
     public void wakeUp() {
-        LOGGER.info("{} wakes up.", name());
+        EventJournal.getDefault().emit(WAKE_UP, name());
     }
 
     public void goHome() {
-        LOGGER.info("{} goes home.", name());
+        EventJournal.getDefault().emit(GO_HOME, name());
     }
 
     public void goToMine() {
-        LOGGER.info("{} goes to the mine.", name());
+        EventJournal.getDefault().emit(GO_TO_MINE, name());
     }
 
     private void action(Action action) {
@@ -1,5 +1,7 @@
 package com.dhf.facade;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,10 +10,11 @@ import org.slf4j.LoggerFactory;
  */
 public class DwarvenTunnelDigger extends DwarvenMineWorker {
     private static final Logger LOGGER = LoggerFactory.getLogger(DwarvenTunnelDigger.class);
+    private static final EventType WORK = new EventType(LOGGER, "{} creates another promising tunnel.");
 
     @Override
     public void work() {
-        LOGGER.info("{} creates another promising tunnel.", name());
+        EventJournal.getDefault().emit(WORK, name());
     }
 
     @Override
@@ -1,5 +1,7 @@
 package com.dhf.flyweight;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,9 +10,10 @@ import org.slf4j.LoggerFactory;
  */
 public class StrengthPotion implements Potion {
     private static final Logger LOGGER = LoggerFactory.getLogger(StrengthPotion.class);
+    private static final EventType DRINK = new EventType(LOGGER, "You feel strong. (Potion={})");
 
     @Override
     public void drink() {
-        LOGGER.info("You feel strong. (Potion={})", System.identityHashCode(this));
+        EventJournal.getDefault().emit(DRINK, System.identityHashCode(this));
     }
 }
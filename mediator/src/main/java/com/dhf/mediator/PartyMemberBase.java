@@ -1,5 +1,7 @@
 package com.dhf.mediator;
 
+import com.dhf.common.EventJournal;
+import com.dhf.common.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,6 +10,7 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class PartyMemberBase implements PartyMember {
     private static final Logger LOGGER = LoggerFactory.getLogger(PartyMemberBase.class);
+    private static final EventType PARTY_ACTION = new EventType(LOGGER, "{} {}");
 
     protected Party party;
 
@@ -19,7 +22,7 @@ public abstract class PartyMemberBase implements PartyMember {
 
     @Override
     public void partyAction(Action action) {
-        LOGGER.info("{} {}", this, action.getDescription());
+        EventJournal.getDefault().emit(PARTY_ACTION, this, action.getDescription());
     }
 
     @Override
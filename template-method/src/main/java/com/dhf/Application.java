@@ -1,5 +1,6 @@
 package com.dhf;
 
+import com.dhf.common.Console;
 import com.dhf.template.Cricket;
 import com.dhf.template.Football;
 import com.dhf.template.Game;
@@ -8,7 +9,7 @@ public class Application {
     public static void main(String[] args) {
         Game game = new Cricket();
         game.play();
-        System.out.println();
+        Console.println();
         game = new Football();
         game.play();
     }
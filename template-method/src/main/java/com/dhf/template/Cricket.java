@@ -1,18 +1,20 @@
 package com.dhf.template;
 
+import com.dhf.common.Console;
+
 public class Cricket extends Game {
     @Override
     void endPlay() {
-        System.out.println("Cricket Game Finished!");
+        Console.println("Cricket Game Finished!");
     }
 
     @Override
     void initialize() {
-        System.out.println("Cricket Game Initialized! Start playing.");
+        Console.println("Cricket Game Initialized! Start playing.");
     }
 
     @Override
     void startPlay() {
-        System.out.println("Cricket Game Started. Enjoy the game!");
+        Console.println("Cricket Game Started. Enjoy the game!");
     }
 }
\ No newline at end of file
@@ -1,18 +1,20 @@
 package com.dhf.template;
 
+import com.dhf.common.Console;
+
 public class Football extends Game {
     @Override
     void endPlay() {
-        System.out.println("Football Game Finished!");
+        Console.println("Football Game Finished!");
     }
 
     @Override
     void initialize() {
-        System.out.println("Football Game Initialized! Start playing.");
+        Console.println("Football Game Initialized! Start playing.");
     }
 
     @Override
     void startPlay() {
-        System.out.println("Football Game Started. Enjoy the game!");
+        Console.println("Football Game Started. Enjoy the game!");
     }
 }
\ No newline at end of file
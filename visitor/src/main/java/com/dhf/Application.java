@@ -1,5 +1,6 @@
 package com.dhf;
 
+import com.dhf.common.Console;
 import com.dhf.visitor.*;
 
 public class Application {
@@ -19,7 +20,7 @@ public class Application {
         Visitor gradeSelection = new GradeSelection();
         // 具体的访问操作，打印输出访问结果
         objectStructure.accept(gradeSelection);
-        System.out.println("----结构不变，操作易变----");
+        Console.println("----结构不变，操作易变----");
         // 数据结构是没有变化的，如果我们还想增加选拔科研优秀者的操作，那么如下。
         Visitor researcherSelection = new ResearcherSelection();
         objectStructure.accept(researcherSelection);
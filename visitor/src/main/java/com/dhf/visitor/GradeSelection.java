@@ -1,5 +1,7 @@
 package com.dhf.visitor;
 
+import com.dhf.common.Console;
+
 /**
  * 具体访问者，实现了Visitor中定义的操作。
  */
@@ -10,7 +12,7 @@ public class GradeSelection implements Visitor {
     public void visit(Student element) {
         // 如果学生考试成绩超过90，则入围成绩优秀奖。
         if (element.getGrade() >= 90) {
-            System.out.println(String.format(awardWords,
+            Console.println(String.format(awardWords,
                     element.getName(), element.getGrade()));
         }
     }
@@ -19,7 +21,7 @@ public class GradeSelection implements Visitor {
     public void visit(Teacher element) {
         // 如果老师反馈得分超过85，则入围成绩优秀奖。
         if (element.getScore() >= 85) {
-            System.out.println(String.format(awardWords,
+            Console.println(String.format(awardWords,
                     element.getName(), element.getScore()));
         }
     }
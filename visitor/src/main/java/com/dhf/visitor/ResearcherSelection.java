@@ -1,5 +1,7 @@
 package com.dhf.visitor;
 
+import com.dhf.common.Console;
+
 /**
  * 具体访问者，实现了Visitor中定义的操作。
  */
@@ -10,7 +12,7 @@ public class ResearcherSelection implements Visitor {
     public void visit(Student element) {
         // 如果学生发表论文数超过2，则入围科研优秀奖。
         if (element.getPaperCount() > 2) {
-            System.out.println(String.format(awardWords,
+            Console.println(String.format(awardWords,
                     element.getName(), element.getPaperCount()));
         }
     }
@@ -19,7 +21,7 @@ public class ResearcherSelection implements Visitor {
     public void visit(Teacher element) {
         // 如果老师发表论文数超过8，则入围科研优秀奖。
         if (element.getPaperCount() > 8) {
-            System.out.println(String.format(awardWords,
+            Console.println(String.format(awardWords,
                     element.getName(), element.getPaperCount()));
         }
     }